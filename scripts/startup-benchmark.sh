@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+#
+# Measures time to first successful request and resident memory of the user service.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+#
+# Compares three launch modes, each started RUNS times (default 5):
+#   boot-jar   executable bootJar, default profile
+#   prod       fast-start jar, prod profile
+#   prod+cds   fast-start jar, prod profile, AppCDS archive
+#
+# Build first with: ./gradlew bootJar fastStartArchive
+# Environment: PORT (default 8081), PROBE_PATH (default /api/users/1), JAVA (default java).
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-8081}"
+PROBE_PATH="${PROBE_PATH:-/api/users/1}"
+JAVA="${JAVA:-java}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+BOOT_JAR="$(ls "$ROOT"/build/libs/*-SNAPSHOT.jar 2>/dev/null | grep -v -- '-plain' | head -n 1 || true)"
+FAST_DIR="$ROOT/build/faststart"
+
+if [[ -z "$BOOT_JAR" || ! -f "$FAST_DIR/user-service.jsa" ]]; then
+    echo "Missing build output; run ./gradlew bootJar fastStartArchive first" >&2
+    exit 1
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+# Starts the given command, waits for the first 2xx on the probe path, prints "<ms> <rss-kb>"
+measure() {
+    local dir="$1"; shift
+    local start pid elapsed rss
+    start=$(now_ms)
+    (cd "$dir" && exec "$@" --server.port="$PORT") >/dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT$PROBE_PATH"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Service exited before answering" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(awk '/VmRSS/ { print $2 }' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$elapsed $rss"
+}
+
+run_mode() {
+    local name="$1"; shift
+    local results=()
+    for ((i = 1; i <= RUNS; i++)); do
+        results+=("$(measure "$@")")
+    done
+    printf '%s\n' "${results[@]}" | sort -n | awk -v name="$name" '
+        { ms[NR] = $1; rss[NR] = $2; total_rss += $2 }
+        END {
+            median = ms[int((NR + 1) / 2)]
+            printf "%-10s runs=%-3d first-200 min=%5d ms  median=%5d ms  max=%5d ms  avg-rss=%6.1f MB\n",
+                name, NR, ms[1], median, ms[NR], total_rss / NR / 1024
+        }'
+}
+
+run_mode boot-jar "$ROOT" "$JAVA" -jar "$BOOT_JAR"
+run_mode prod "$FAST_DIR" "$JAVA" -Dspring.profiles.active=prod -jar user-service.jar
+run_mode prod+cds "$FAST_DIR" "$JAVA" -XX:SharedArchiveFile=user-service.jsa -Dspring.profiles.active=prod -jar user-service.jar
@@ -0,0 +1,31 @@
+package com.ecommerce.userservice.auth;
+
+import com.ecommerce.userservice.model.User;
+
+/**
+ * What login needs to know about a user: id, username and password hash. The version is only
+ * known when the credential was read from the entity and is null when it came from {@link CredentialIndex}.
+ */
+public final class Credential {
+
+    private final Long id;
+    private final String username;
+    private final String passwordHash;
+    private final Long version;
+
+    public Credential(Long id, String username, String passwordHash, Long version) {
+        this.id = id;
+        this.username = username;
+        this.passwordHash = passwordHash;
+        this.version = version;
+    }
+
+    public static Credential of(User user) {
+        return new Credential(user.getId(), user.getUsername(), user.getPassword(), user.getVersion());
+    }
+
+    public Long getId() { return id; }
+    public String getUsername() { return username; }
+    public String getPasswordHash() { return passwordHash; }
+    public Long getVersion() { return version; }
+}
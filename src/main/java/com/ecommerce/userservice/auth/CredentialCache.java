@@ -0,0 +1,182 @@
+package com.ecommerce.userservice.auth;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers, for a short time, that a user recently logged in with a given password so repeat logins
+ * can skip BCrypt. Only an HMAC-SHA256 of the credential is kept, under a random key generated at
+ * startup that never leaves the process; a heap dump therefore yields nothing that can be checked
+ * offline or replayed against another instance.
+ *
+ * The HMAC also covers the user's id, stored password hash and, when known, version, so a changed
+ * user turns an entry into a miss even before the change event evicts it. Only successful BCrypt checks
+ * are cached; failed attempts always pay the full cost. Login attempt limits are enforced before the
+ * service is called and are unaffected.
+ *
+ * Opt-in with {@code auth.credential-cache.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.credential-cache.enabled", havingValue = "true")
+public class CredentialCache implements MeterBinder {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Value("${auth.credential-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${auth.credential-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> usernames = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder verificationNanos = new LongAdder();
+    private Counter invalidations;
+
+    public CredentialCache() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        key = new SecretKeySpec(secret, ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+
+    /**
+     * True if this exact password was verified for this version of the user within the TTL.
+     */
+    public boolean isVerified(Credential credential, String rawPassword) {
+        Entry entry = entries.get(credential.getUsername());
+        if (entry == null || entry.expiresAt < System.nanoTime()
+                || !MessageDigest.isEqual(entry.digest, digest(credential, rawPassword))) {
+            misses.increment();
+            return false;
+        }
+        hits.increment();
+        return true;
+    }
+
+    /**
+     * Records the outcome of a full password check. A success is cached; a failure evicts any entry
+     * for the user. The elapsed time feeds the estimate of BCrypt time saved by hits.
+     */
+    public void recordVerification(Credential credential, String rawPassword, boolean matched, long elapsedNanos) {
+        verifications.increment();
+        verificationNanos.add(elapsedNanos);
+        if (!matched) {
+            evict(credential.getUsername());
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> entry.expiresAt < now);
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        long expiresAt = System.nanoTime() + ttlSeconds * 1_000_000_000L;
+        entries.put(credential.getUsername(), new Entry(digest(credential, rawPassword), expiresAt));
+        usernames.put(credential.getId(), credential.getUsername());
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        // PATCH events carry no username, so it is resolved through the id
+        String username = event.getUsername() != null ? event.getUsername() : usernames.get(event.getUserId());
+        if (event.getUserId() != null) {
+            usernames.remove(event.getUserId());
+        }
+        if (username != null && entries.remove(username) != null && invalidations != null) {
+            invalidations.increment();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.credential_cache.requests", hits, LongAdder::doubleValue)
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("auth.credential_cache.requests", misses, LongAdder::doubleValue)
+            .tag("result", "miss")
+            .register(registry);
+        FunctionCounter.builder("auth.credential_cache.bcrypt_saved", this, CredentialCache::savedSeconds)
+            .description("Estimated BCrypt time avoided by cache hits, at the mean cost of a full check")
+            .baseUnit("seconds")
+            .register(registry);
+        Gauge.builder("auth.credential_cache.size", entries, ConcurrentHashMap::size)
+            .register(registry);
+        invalidations = Counter.builder("auth.credential_cache.invalidations")
+            .description("Entries evicted because the user changed")
+            .register(registry);
+    }
+
+    double savedSeconds() {
+        long count = verifications.sum();
+        if (count == 0) {
+            return 0;
+        }
+        double meanNanos = (double) verificationNanos.sum() / count;
+        return hits.sum() * meanNanos / 1e9;
+    }
+
+    private void evict(String username) {
+        Entry removed = entries.remove(username);
+        if (removed != null) {
+            usernames.values().remove(username);
+        }
+    }
+
+    private byte[] digest(Credential credential, String rawPassword) {
+        Mac mac = macs.get();
+        mac.update(bytes(credential.getId() + "\0" + credential.getVersion() + "\0" + credential.getUsername() + "\0"));
+        mac.update(bytes(credential.getPasswordHash() + "\0"));
+        return mac.doFinal(bytes(rawPassword));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Entry {
+        private final byte[] digest;
+        private final long expiresAt;
+
+        Entry(byte[] digest, long expiresAt) {
+            this.digest = digest;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.ecommerce.userservice.auth;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import com.ecommerce.userservice.event.UsersBulkLoadedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Username to (id, password hash) map in a memory-mapped file, so login can check a password without a
+ * query and without keeping millions of credentials on the heap.
+ *
+ * The file is an open-addressing hash table with linear probing and fixed 160-byte slots; usernames of
+ * up to 64 bytes and hashes of up to 72 bytes fit, anything longer is simply not indexed. Usernames and
+ * password hashes never change and users are never deleted, so slots are only ever added or rewritten.
+ * Readers use an optimistic {@link StampedLock} read and retry under the read lock if a writer interfered.
+ *
+ * The file survives restarts. Once the application is ready its entry count and highest id are compared
+ * with the {@code users} table, and it is rebuilt from the table if they differ or if the previous process
+ * did not close it cleanly. A miss, or any lookup while the index is not ready, means "ask the database".
+ *
+ * Opt-in with {@code auth.credential-index.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.credential-index.enabled", havingValue = "true")
+public class CredentialIndex {
+
+    static final int MAX_USERNAME_BYTES = 64;
+    static final int MAX_HASH_BYTES = 72;
+
+    private static final int MAGIC = 0x55434931;
+    private static final int FORMAT = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 160;
+    private static final int SLOTS_PER_SEGMENT = 1 << 22;
+    private static final double MAX_LOAD = 0.7;
+
+    // Header layout
+    private static final int H_MAGIC = 0;
+    private static final int H_FORMAT = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_SIZE = 12;
+    private static final int H_MAX_ID = 16;
+    private static final int H_DIRTY = 24;
+
+    // Slot layout; the state byte is written last
+    private static final int S_STATE = 0;
+    private static final int S_HASH_LENGTH = 1;
+    private static final int S_USERNAME_LENGTH = 2;
+    private static final int S_KEY_HASH = 4;
+    private static final int S_ID = 8;
+    private static final int S_USERNAME = 16;
+    private static final int S_PASSWORD_HASH = S_USERNAME + MAX_USERNAME_BYTES;
+
+    private static final byte EMPTY = 0;
+    private static final byte LIVE = 1;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${auth.credential-index.path:data/credential-index.bin}")
+    private String path;
+
+    @Value("${auth.credential-index.initial-capacity:1024}")
+    private int initialCapacity;
+
+    private final StampedLock lock = new StampedLock();
+    private final ConcurrentLinkedQueue<Credential> pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+    private volatile Table table;
+    private volatile boolean ready;
+    private boolean rebuilding;
+    private boolean openedDirty;
+    private long rebuilds;
+
+    @PostConstruct
+    void open() throws IOException {
+        Path file = Paths.get(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Table existing = Files.exists(file) ? Table.open(file) : null;
+        if (existing == null) {
+            table = Table.create(file, tableSizeFor(initialCapacity));
+            openedDirty = false;
+        } else {
+            table = existing;
+            openedDirty = existing.header.getInt(H_DIRTY) != 0;
+        }
+        table.markDirty(true);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            ready = false;
+            table.markDirty(false);
+            table.close();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Compares the file with the {@code users} table and rebuilds it when they disagree. Runs once the
+     * application is ready and again after a bulk load.
+     */
+    @EventListener({ApplicationReadyEvent.class, UsersBulkLoadedEvent.class})
+    public void verify() {
+        // Only users the index can hold are compared, so over-long usernames do not force a rebuild every start
+        Map<String, Object> stats = jdbcTemplate.queryForMap("SELECT COUNT(*) AS users, COALESCE(MAX(id), 0) AS max_id FROM users " +
+            "WHERE OCTET_LENGTH(username) <= ? AND OCTET_LENGTH(password) <= ?", MAX_USERNAME_BYTES, MAX_HASH_BYTES);
+        long users = ((Number) stats.get("users")).longValue();
+        long maxId = ((Number) stats.get("max_id")).longValue();
+        Table current = table;
+        if (openedDirty || current.size() != users || current.maxId() != maxId) {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                // Login keeps working from the database; the next bulk load retries
+                System.err.println("Credential index rebuild failed: " + e.getMessage());
+                return;
+            }
+        }
+        openedDirty = false;
+        ready = true;
+    }
+
+    /**
+     * The credential for a username, or empty if the index cannot answer and the database must be asked.
+     */
+    public Optional<Credential> find(String username) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        byte[] key = username.getBytes(StandardCharsets.UTF_8);
+        if (key.length > MAX_USERNAME_BYTES) {
+            return Optional.empty();
+        }
+        int keyHash = keyHash(key);
+        long stamp = lock.tryOptimisticRead();
+        Credential credential = probe(table, key, keyHash, username);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                credential = probe(table, key, keyHash, username);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return Optional.ofNullable(credential);
+    }
+
+    /**
+     * Adds or refreshes a user after its transaction committed. Profile updates without a username
+     * (PATCH, batch updates) cannot touch the username or password and are ignored.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getType() == UserChangedEvent.Type.UPDATED && event.getUsername() == null) {
+            return;
+        }
+        List<Credential> rows = jdbcTemplate.query("SELECT id, username, password FROM users WHERE id = ?",
+            (rs, rowNum) -> new Credential(rs.getLong("id"), rs.getString("username"), rs.getString("password"), null),
+            event.getUserId());
+        if (!rows.isEmpty()) {
+            put(rows.get(0));
+        }
+    }
+
+    public void put(Credential credential) {
+        long stamp = lock.writeLock();
+        try {
+            if (rebuilding) {
+                pendingDuringRebuild.add(credential);
+                return;
+            }
+            insert(credential);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Streams the {@code users} table into a new file and swaps it in. Writes that arrive meanwhile are
+     * queued and applied to the new file; lookups fall back to the database until it is in place.
+     */
+    public void rebuild() {
+        long stamp = lock.writeLock();
+        try {
+            rebuilding = true;
+            ready = false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        Path file = Paths.get(path);
+        Path temp = file.resolveSibling(file.getFileName() + ".rebuild");
+        Table rebuilt;
+        try {
+            Long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+            rebuilt = Table.create(temp, tableSizeFor(Math.max(initialCapacity, (long) Math.ceil((users + 1) / MAX_LOAD))));
+            Table target = rebuilt;
+            jdbcTemplate.query("SELECT id, username, password FROM users", rs -> {
+                insertInto(target, new Credential(rs.getLong("id"), rs.getString("username"), rs.getString("password"), null));
+            });
+            rebuilt.markDirty(true);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // Keep serving from the database; queued writes go to the old file so it is no worse than before
+            swapIn(null);
+            if (e instanceof IOException io) {
+                throw new UncheckedIOException("Could not rebuild credential index", io);
+            }
+            throw (RuntimeException) e;
+        }
+        swapIn(rebuilt);
+        rebuilds++;
+        ready = true;
+    }
+
+    private void swapIn(Table rebuilt) {
+        long stamp = lock.writeLock();
+        try {
+            Table previous = table;
+            if (rebuilt != null) {
+                table = rebuilt;
+            }
+            rebuilding = false;
+            for (Credential pending = pendingDuringRebuild.poll(); pending != null; pending = pendingDuringRebuild.poll()) {
+                insert(pending);
+            }
+            if (rebuilt != null) {
+                // The old mapping stays readable for optimistic readers until it is garbage collected
+                previous.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    long rebuilds() {
+        return rebuilds;
+    }
+
+    // Caller holds the write lock
+    private void insert(Credential credential) {
+        Table current = table;
+        if (current.size() + 1 > current.capacity * MAX_LOAD) {
+            current = grow(current);
+        }
+        insertInto(current, credential);
+    }
+
+    private Table grow(Table current) {
+        Path file = Paths.get(path);
+        Path temp = file.resolveSibling(file.getFileName() + ".grow");
+        try {
+            Table grown = Table.create(temp, current.capacity * 2);
+            for (int slot = 0; slot < current.capacity; slot++) {
+                ByteBuffer segment = current.segment(slot);
+                int offset = current.offset(slot);
+                if (segment.get(offset + S_STATE) == LIVE) {
+                    insertInto(grown, read(segment, offset, null));
+                }
+            }
+            grown.markDirty(true);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            current.close();
+            table = grown;
+            return grown;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not grow credential index", e);
+        }
+    }
+
+    private static void insertInto(Table target, Credential credential) {
+        byte[] key = credential.getUsername().getBytes(StandardCharsets.UTF_8);
+        byte[] hash = credential.getPasswordHash().getBytes(StandardCharsets.UTF_8);
+        if (key.length > MAX_USERNAME_BYTES || hash.length > MAX_HASH_BYTES) {
+            return;
+        }
+        int keyHash = keyHash(key);
+        int mask = target.capacity - 1;
+        for (int slot = keyHash & mask; ; slot = (slot + 1) & mask) {
+            ByteBuffer segment = target.segment(slot);
+            int offset = target.offset(slot);
+            byte state = segment.get(offset + S_STATE);
+            boolean existing = state == LIVE && segment.getInt(offset + S_KEY_HASH) == keyHash && keyEquals(segment, offset, key);
+            if (state == EMPTY || existing) {
+                segment.put(offset + S_HASH_LENGTH, (byte) hash.length);
+                segment.putShort(offset + S_USERNAME_LENGTH, (short) key.length);
+                segment.putInt(offset + S_KEY_HASH, keyHash);
+                segment.putLong(offset + S_ID, credential.getId());
+                segment.put(offset + S_USERNAME, key);
+                segment.put(offset + S_PASSWORD_HASH, hash);
+                segment.put(offset + S_STATE, LIVE);
+                if (!existing) {
+                    target.header.putInt(H_SIZE, target.size() + 1);
+                }
+                if (credential.getId() > target.maxId()) {
+                    target.header.putLong(H_MAX_ID, credential.getId());
+                }
+                return;
+            }
+        }
+    }
+
+    // May run without a lock; every length read is clamped so a torn slot cannot index out of bounds
+    private static Credential probe(Table target, byte[] key, int keyHash, String username) {
+        int mask = target.capacity - 1;
+        int slot = keyHash & mask;
+        for (int i = 0; i < target.capacity; i++, slot = (slot + 1) & mask) {
+            ByteBuffer segment = target.segment(slot);
+            int offset = target.offset(slot);
+            byte state = segment.get(offset + S_STATE);
+            if (state == EMPTY) {
+                return null;
+            }
+            if (segment.getInt(offset + S_KEY_HASH) == keyHash && keyEquals(segment, offset, key)) {
+                return read(segment, offset, username);
+            }
+        }
+        return null;
+    }
+
+    private static Credential read(ByteBuffer segment, int offset, String knownUsername) {
+        String username = knownUsername;
+        if (username == null) {
+            byte[] key = new byte[Math.min(MAX_USERNAME_BYTES, Math.max(0, segment.getShort(offset + S_USERNAME_LENGTH)))];
+            segment.get(offset + S_USERNAME, key);
+            username = new String(key, StandardCharsets.UTF_8);
+        }
+        byte[] hash = new byte[Math.min(MAX_HASH_BYTES, segment.get(offset + S_HASH_LENGTH) & 0xFF)];
+        segment.get(offset + S_PASSWORD_HASH, hash);
+        return new Credential(segment.getLong(offset + S_ID), username, new String(hash, StandardCharsets.US_ASCII), null);
+    }
+
+    private static boolean keyEquals(ByteBuffer segment, int offset, byte[] key) {
+        if (segment.getShort(offset + S_USERNAME_LENGTH) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (segment.get(offset + S_USERNAME + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int keyHash(byte[] key) {
+        int hash = 1;
+        for (byte b : key) {
+            hash = 31 * hash + b;
+        }
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    private static int tableSizeFor(long slots) {
+        long size = Long.highestOneBit(Math.max(16, slots - 1)) << 1;
+        if (size > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Credential index too large: " + slots + " slots");
+        }
+        return (int) size;
+    }
+
+    /**
+     * One mapped file: the header and the slots, split into segments because a single mapping is limited to 2 GB.
+     */
+    private static final class Table {
+        private final FileChannel channel;
+        private final MappedByteBuffer header;
+        private final MappedByteBuffer[] segments;
+        private final int capacity;
+
+        private Table(FileChannel channel, int capacity) throws IOException {
+            this.channel = channel;
+            this.capacity = capacity;
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            int segmentCount = (capacity + SLOTS_PER_SEGMENT - 1) / SLOTS_PER_SEGMENT;
+            this.segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long slots = Math.min(SLOTS_PER_SEGMENT, capacity - (long) i * SLOTS_PER_SEGMENT);
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_SIZE + (long) i * SLOTS_PER_SEGMENT * SLOT_SIZE, slots * SLOT_SIZE);
+            }
+        }
+
+        static Table create(Path file, int capacity) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Table table = new Table(channel, capacity);
+            table.header.putInt(H_MAGIC, MAGIC);
+            table.header.putInt(H_FORMAT, FORMAT);
+            table.header.putInt(H_CAPACITY, capacity);
+            table.header.putInt(H_SIZE, 0);
+            table.header.putLong(H_MAX_ID, 0);
+            return table;
+        }
+
+        // Null if the file is not a complete index of this format; it is then recreated
+        static Table open(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() < HEADER_SIZE) {
+                channel.close();
+                return null;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            int capacity = header.getInt(H_CAPACITY);
+            boolean valid = header.getInt(H_MAGIC) == MAGIC && header.getInt(H_FORMAT) == FORMAT
+                && capacity > 0 && Integer.bitCount(capacity) == 1
+                && channel.size() >= HEADER_SIZE + (long) capacity * SLOT_SIZE;
+            if (!valid) {
+                channel.close();
+                return null;
+            }
+            return new Table(channel, capacity);
+        }
+
+        ByteBuffer segment(int slot) {
+            return segments[slot / SLOTS_PER_SEGMENT];
+        }
+
+        int offset(int slot) {
+            return (slot % SLOTS_PER_SEGMENT) * SLOT_SIZE;
+        }
+
+        int size() {
+            return header.getInt(H_SIZE);
+        }
+
+        long maxId() {
+            return header.getLong(H_MAX_ID);
+        }
+
+        void markDirty(boolean dirty) {
+            if (!dirty) {
+                for (MappedByteBuffer segment : segments) {
+                    segment.force();
+                }
+            }
+            header.putInt(H_DIRTY, dirty ? 1 : 0);
+            header.force();
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
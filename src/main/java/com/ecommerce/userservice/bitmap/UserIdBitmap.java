@@ -0,0 +1,169 @@
+package com.ecommerce.userservice.bitmap;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import com.ecommerce.userservice.event.UsersBulkLoadedEvent;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.sharding.ShardedUserRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Roaring bitmap of every user id, published so that other services can answer "does user X exist"
+ * from memory instead of calling {@code GET /api/users/{id}}.
+ *
+ * Users are never deleted, so the set only grows and its version is simply the number of ids added,
+ * prefixed with an epoch that changes on every start: {@code <epoch>-<count>}. The ids added most
+ * recently are kept in order (up to {@code user.id-bitmap.max-delta-ids}), so a client holding an
+ * older version of the same epoch can download just the ids added since and OR them into its copy.
+ * Anything older, or from another epoch, gets the full bitmap.
+ *
+ * Bodies use the portable Roaring serialization. Ids are stored as unsigned 32-bit values.
+ */
+@Component
+public class UserIdBitmap {
+
+    private static final long MAX_ID = 0xFFFFFFFFL;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Present only with sharding.enabled=true
+    @Autowired(required = false)
+    private ShardedUserRepository shardedUsers;
+
+    @Value("${user.id-bitmap.max-delta-ids:100000}")
+    private int maxDeltaIds;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final RoaringBitmap ids = new RoaringBitmap();
+    // log[i] is the id of addition number logStart + i + 1
+    private int[] log = new int[1024];
+    private int logSize;
+    private long logStart;
+    private long count;
+    private Snapshot full;
+
+    @EventListener({ApplicationReadyEvent.class, UsersBulkLoadedEvent.class})
+    public void load() {
+        List<Long> all = shardedUsers != null ? shardedUsers.findAllIds() : userRepository.findAllIds();
+        synchronized (this) {
+            for (Long id : all) {
+                add(id);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getType() == UserChangedEvent.Type.REGISTERED && event.getUserId() != null) {
+            add(event.getUserId());
+        }
+    }
+
+    /**
+     * Adds a user id; returns false if it was already present.
+     */
+    public synchronized boolean add(long id) {
+        if (id < 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("User id " + id + " does not fit the 32-bit id bitmap");
+        }
+        if (!ids.checkedAdd((int) id)) {
+            return false;
+        }
+        if (logSize == log.length) {
+            if (logSize >= maxDeltaIds) {
+                // Forget the older half; clients behind it fall back to the full bitmap
+                int keep = logSize / 2;
+                System.arraycopy(log, logSize - keep, log, 0, keep);
+                logStart += logSize - keep;
+                logSize = keep;
+            } else {
+                log = Arrays.copyOf(log, Math.min(maxDeltaIds, log.length * 2));
+            }
+        }
+        log[logSize++] = (int) id;
+        count++;
+        return true;
+    }
+
+    public synchronized boolean contains(long id) {
+        return id >= 0 && id <= MAX_ID && ids.contains((int) id);
+    }
+
+    public synchronized String version() {
+        return epoch + "-" + count;
+    }
+
+    /**
+     * Returns the ids added after {@code since}, or every id if {@code since} is null, from another
+     * epoch or older than the retained history.
+     *
+     * @throws IllegalArgumentException if {@code since} is not a version this class produces
+     */
+    public synchronized Snapshot since(String since) {
+        String current = version();
+        if (since != null) {
+            long from = parseCount(since);
+            if (from >= logStart && from <= count) {
+                RoaringBitmap delta = new RoaringBitmap();
+                delta.addN(log, (int) (from - logStart), (int) (count - from));
+                return new Snapshot(current, true, delta);
+            }
+        }
+        if (full == null || !full.version.equals(current)) {
+            ids.runOptimize();
+            full = new Snapshot(current, false, ids);
+        }
+        return full;
+    }
+
+    // The count part of a version from this epoch, or -1 for another epoch
+    private long parseCount(String version) {
+        int dash = version.lastIndexOf('-');
+        if (dash <= 0) {
+            throw new IllegalArgumentException("Unknown bitmap version: " + version);
+        }
+        long parsed;
+        try {
+            parsed = Long.parseLong(version.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unknown bitmap version: " + version);
+        }
+        return version.substring(0, dash).equals(epoch) ? parsed : -1;
+    }
+
+    public static final class Snapshot {
+        private final String version;
+        private final boolean delta;
+        private final int cardinality;
+        private final byte[] body;
+
+        Snapshot(String version, boolean delta, RoaringBitmap bitmap) {
+            this.version = version;
+            this.delta = delta;
+            this.cardinality = bitmap.getCardinality();
+            ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+            bitmap.serialize(buffer);
+            this.body = buffer.array();
+        }
+
+        public String getVersion() { return version; }
+
+        /** True if the body only holds ids added after the requested version. */
+        public boolean isDelta() { return delta; }
+
+        public int getCardinality() { return cardinality; }
+
+        /** Portable Roaring serialization. */
+        public byte[] getBody() { return body; }
+    }
+}
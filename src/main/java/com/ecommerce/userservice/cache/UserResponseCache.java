@@ -0,0 +1,176 @@
+package com.ecommerce.userservice.cache;
+
+import com.ecommerce.userservice.codec.UserWireFormat;
+import com.ecommerce.userservice.event.UserChangedEvent;
+import com.ecommerce.userservice.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Encoded bodies of {@code GET /api/users/{id}}, keyed by user id and tagged with the entity
+ * version, so a hit is written straight to the response without touching Jackson or the DB.
+ * JSON is encoded on the miss; binary formats are transcoded from it the first time they are asked for.
+ *
+ * Entries are dropped after a user change commits. To stop a reader that loaded the old row
+ * from re-caching it after the eviction, callers take a {@link #stamp()} before loading and
+ * {@link #put} refuses to store if the user was invalidated since.
+ */
+@Component
+public class UserResponseCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${user.response-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    // Highest invalidation stamp among evicted entries; a put older than it may be stale
+    private final AtomicLong evictedInvalidation = new AtomicLong();
+    private final ConcurrentHashMap<UserWireFormat, ObjectMapper> mappers = new ConcurrentHashMap<>();
+
+    public CachedResponse get(Long id) {
+        Entry entry = entries.get(id);
+        return entry != null ? entry.response : null;
+    }
+
+    public long stamp() {
+        return clock.get();
+    }
+
+    /**
+     * Encodes the user and caches the bytes unless the user was invalidated after {@code stamp}.
+     * Returns the encoded response either way.
+     */
+    public CachedResponse put(User user, long stamp) {
+        CachedResponse response = new CachedResponse(user.getVersion(), encode(user));
+        if (entries.size() >= maxEntries) {
+            trim();
+        }
+        entries.compute(user.getId(), (id, existing) -> {
+            if (existing == null) {
+                // The tombstone that would have stopped this put may have been trimmed
+                return stamp < evictedInvalidation.get() ? null : new Entry(response, 0);
+            }
+            if (existing.invalidatedAt > stamp || isNewer(existing.response, response)) {
+                return existing;
+            }
+            return new Entry(response, existing.invalidatedAt);
+        });
+        return response;
+    }
+
+    public byte[] body(CachedResponse response, UserWireFormat format) {
+        byte[] body = response.bodies.get(format.ordinal());
+        if (body == null) {
+            body = transcode(response.getBody(), format);
+            response.bodies.set(format.ordinal(), body);
+        }
+        return body;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.getUserId());
+    }
+
+    public void invalidate(Long id) {
+        if (id != null) {
+            if (entries.size() >= maxEntries) {
+                trim();
+            }
+            entries.put(id, new Entry(null, clock.incrementAndGet()));
+        }
+    }
+
+    public void clear() {
+        evictedInvalidation.accumulateAndGet(clock.get(), Math::max);
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static boolean isNewer(CachedResponse cached, CachedResponse candidate) {
+        return cached != null && cached.version != null && candidate.version != null
+            && cached.version > candidate.version;
+    }
+
+    private byte[] encode(User user) {
+        try {
+            return objectMapper.writeValueAsBytes(user);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode user " + user.getId(), e);
+        }
+    }
+
+    private byte[] transcode(byte[] json, UserWireFormat format) {
+        try {
+            JsonNode tree = objectMapper.readTree(json);
+            return mappers.computeIfAbsent(format, f -> f.mapperFrom(objectMapper)).writeValueAsBytes(tree);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to transcode user response to " + format, e);
+        }
+    }
+
+    // Drop tombstones first, then cached bodies until roughly a tenth of the room is free; exact LRU
+    // isn't worth a lock on the read path
+    private void trim() {
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        evict(true, target);
+        evict(false, target);
+    }
+
+    private void evict(boolean tombstonesOnly, int target) {
+        Iterator<Map.Entry<Long, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext() && entries.size() > target) {
+            Map.Entry<Long, Entry> next = it.next();
+            Entry entry = next.getValue();
+            if (tombstonesOnly && entry.response != null) {
+                continue;
+            }
+            // Record before removing, so a concurrent put never sees neither the entry nor its stamp
+            evictedInvalidation.accumulateAndGet(entry.invalidatedAt, Math::max);
+            entries.remove(next.getKey(), entry);
+        }
+    }
+
+    public static class CachedResponse {
+        private final Long version;
+        private final AtomicReferenceArray<byte[]> bodies = new AtomicReferenceArray<>(UserWireFormat.values().length);
+
+        CachedResponse(Long version, byte[] json) {
+            this.version = version;
+            this.bodies.set(UserWireFormat.JSON.ordinal(), json);
+        }
+
+        public Long getVersion() { return version; }
+
+        /** The JSON body. */
+        public byte[] getBody() { return bodies.get(UserWireFormat.JSON.ordinal()); }
+    }
+
+    private static class Entry {
+        final CachedResponse response;
+        final long invalidatedAt;
+
+        Entry(CachedResponse response, long invalidatedAt) {
+            this.response = response;
+            this.invalidatedAt = invalidatedAt;
+        }
+    }
+}
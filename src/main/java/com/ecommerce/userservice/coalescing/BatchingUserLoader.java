@@ -0,0 +1,146 @@
+package com.ecommerce.userservice.coalescing;
+
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects concurrent lookups by id for up to {@code user.batching.window-micros}, or until
+ * {@code user.batching.max-batch-size} distinct ids are waiting, and resolves them with one
+ * repository call. Callers block until their batch has been loaded.
+ *
+ * Opt-in with {@code user.batching.enabled=true}; it trades up to one window of added latency
+ * per lookup for far fewer round trips when many different users are requested at once.
+ */
+@Component
+@ConditionalOnProperty(name = "user.batching.enabled", havingValue = "true")
+public class BatchingUserLoader implements MeterBinder {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${user.batching.window-micros:500}")
+    private long windowMicros;
+
+    @Value("${user.batching.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${user.batching.flush-threads:2}")
+    private int flushThreads;
+
+    private final Object lock = new Object();
+    private Map<Long, CompletableFuture<Optional<User>>> pending = new LinkedHashMap<>();
+    private ScheduledExecutorService flusher;
+    private DistributionSummary batchSizes;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threads = new AtomicInteger();
+        flusher = Executors.newScheduledThreadPool(flushThreads, task -> {
+            Thread thread = new Thread(task, "user-batch-loader-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    public Optional<User> load(Long id) {
+        CompletableFuture<Optional<User>> result;
+        Map<Long, CompletableFuture<Optional<User>>> full = null;
+        synchronized (lock) {
+            result = pending.get(id);
+            if (result == null) {
+                result = new CompletableFuture<>();
+                pending.put(id, result);
+                if (pending.size() == 1) {
+                    Map<Long, CompletableFuture<Optional<User>>> batch = pending;
+                    flusher.schedule(() -> flush(batch), windowMicros, TimeUnit.MICROSECONDS);
+                }
+                if (pending.size() >= maxBatchSize) {
+                    full = pending;
+                    pending = new LinkedHashMap<>();
+                }
+            }
+        }
+        if (full != null) {
+            // The caller that filled the batch runs it instead of waiting for the window
+            flush(full);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchSizes = DistributionSummary.builder("user.lookup.batch.size")
+            .description("Ids resolved per batched repository call")
+            .register(registry);
+    }
+
+    private void flush(Map<Long, CompletableFuture<Optional<User>>> batch) {
+        synchronized (lock) {
+            if (pending == batch) {
+                pending = new LinkedHashMap<>();
+            }
+        }
+        // A batch is flushed either by its timer or by the caller that filled it; only the first counts
+        List<Long> ids = new ArrayList<>(batch.size());
+        synchronized (batch) {
+            for (Map.Entry<Long, CompletableFuture<Optional<User>>> entry : batch.entrySet()) {
+                if (!entry.getValue().isDone()) {
+                    ids.add(entry.getKey());
+                }
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+            if (batchSizes != null) {
+                batchSizes.record(ids.size());
+            }
+            try {
+                Map<Long, User> found = new HashMap<>();
+                for (User user : userRepository.findAllByIdCached(ids)) {
+                    found.put(user.getId(), user);
+                }
+                for (Long id : ids) {
+                    batch.get(id).complete(Optional.ofNullable(found.get(id)));
+                }
+            } catch (RuntimeException e) {
+                for (Long id : ids) {
+                    batch.get(id).completeExceptionally(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.userservice.coalescing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent loads of the same key: the first caller runs the loader and every caller
+ * that arrives while it is running waits for and shares that result instead of running its own.
+ * Nothing is cached; once the load finishes the next caller starts a fresh one.
+ *
+ * Followers receive the very same object as the leader, so results must be treated as read-only.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /** Loads that actually ran the loader. */
+    public long loads() {
+        return loads.sum();
+    }
+
+    /** Calls that were served by another caller's load. */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Registers {@code <name>.loads} and {@code <name>.coalesced} counters and a {@code <name>.in_flight} gauge.
+     */
+    public void bindTo(MeterRegistry registry, String name) {
+        FunctionCounter.builder(name + ".loads", this, SingleFlight::loads)
+            .description("Loads that went to the underlying source")
+            .register(registry);
+        FunctionCounter.builder(name + ".coalesced", this, SingleFlight::coalesced)
+            .description("Calls that shared a concurrent load of the same key")
+            .register(registry);
+        Gauge.builder(name + ".in_flight", this, SingleFlight::inFlight)
+            .description("Keys currently being loaded")
+            .register(registry);
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.userservice.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Encodings offered to service-to-service callers. JSON stays the default; CBOR and Smile are
+ * binary encodings of the same Jackson model, so every endpoint keeps one schema.
+ *
+ * Jackson's binary formats identify fields by name, not by number, so the explicit
+ * {@code @JsonProperty} names on the model are the stable field IDs: they must not change once
+ * published, whatever the Java properties are called.
+ */
+public enum UserWireFormat {
+
+    JSON(MediaType.APPLICATION_JSON, null),
+    CBOR(MediaType.parseMediaType("application/cbor"), "cbor"),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"), "smile");
+
+    private final MediaType mediaType;
+    private final String etagSuffix;
+
+    UserWireFormat(MediaType mediaType, String etagSuffix) {
+        this.mediaType = mediaType;
+        this.etagSuffix = etagSuffix;
+    }
+
+    public MediaType getMediaType() { return mediaType; }
+
+    /** Distinguishes the strong ETag of each representation; null for JSON. */
+    public String getEtagSuffix() { return etagSuffix; }
+
+    public ObjectMapper mapperFrom(ObjectMapper jsonMapper) {
+        switch (this) {
+            case CBOR: return jsonMapper.copyWith(new CBORFactory());
+            case SMILE: return jsonMapper.copyWith(SmileFactory.builder().build());
+            default: return jsonMapper.copyWith(new JsonFactory());
+        }
+    }
+
+    /**
+     * Picks the acceptable format with the highest quality value, preferring an explicit type over
+     * a wildcard at equal quality. A missing header or a wildcard means JSON. Returns null if
+     * nothing offered is acceptable.
+     */
+    public static UserWireFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> requested;
+        try {
+            requested = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        UserWireFormat best = null;
+        double bestQuality = 0;
+        boolean bestFromWildcard = false;
+        for (MediaType type : requested) {
+            double quality = type.getQualityValue();
+            boolean wildcard = type.isWildcardType() || type.isWildcardSubtype();
+            boolean better = quality > bestQuality || (quality == bestQuality && bestFromWildcard && !wildcard);
+            if (quality == 0 || !better) {
+                continue;
+            }
+            for (UserWireFormat format : values()) {
+                if (type.includes(format.mediaType)) {
+                    best = format;
+                    bestQuality = quality;
+                    bestFromWildcard = wildcard;
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+}
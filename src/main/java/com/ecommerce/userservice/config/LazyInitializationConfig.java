@@ -0,0 +1,24 @@
+package com.ecommerce.userservice.config;
+
+import com.ecommerce.userservice.auth.CredentialIndex;
+import com.ecommerce.userservice.bitmap.UserIdBitmap;
+import com.ecommerce.userservice.outbox.UserChangeOutbox;
+import com.ecommerce.userservice.search.UserSearchIndex;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans that must be created at startup even when {@code spring.main.lazy-initialization} is on:
+ * the outbox schedules its compaction when it is created, and the search index, credential index and
+ * id bitmap should be ready before the first request that needs them rather than during it.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(UserChangeOutbox.class, UserSearchIndex.class, CredentialIndex.class,
+            UserIdBitmap.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.userservice.config;
+
+import com.ecommerce.userservice.sharding.ShardedUserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in sharded user store. Locally every shard and the directory is its own in-memory H2
+ * database; {@code {shard}} in the URL template is replaced by the shard number.
+ *
+ * When the store exists, {@code UserService}, batch updates, the export, the seed data and the
+ * in-memory indexes read and write users through it instead of the JPA {@code users} table. The JPA
+ * {@code dataSource} still holds the change outbox, so the shard pools are deliberately not exposed
+ * as {@code DataSource} beans. Features that read the JPA table on their own (the credential index,
+ * batched id lookups and the synthetic user generator) cannot be combined with sharding.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Value("${sharding.shards:3}")
+    private int shardCount;
+
+    @Value("${sharding.url-template:jdbc:h2:mem:users_shard_{shard};DB_CLOSE_DELAY=-1}")
+    private String urlTemplate;
+
+    @Value("${sharding.directory-url:jdbc:h2:mem:users_directory;DB_CLOSE_DELAY=-1}")
+    private String directoryUrl;
+
+    @Value("${sharding.username:sa}")
+    private String username;
+
+    @Value("${sharding.password:}")
+    private String password;
+
+    @Value("${sharding.scatter-threads:8}")
+    private int scatterThreads;
+
+    @Value("${auth.credential-index.enabled:false}")
+    private boolean credentialIndexEnabled;
+
+    @Value("${user.batching.enabled:false}")
+    private boolean batchingEnabled;
+
+    @Value("${seed.synthetic.users:0}")
+    private long syntheticUsers;
+
+    @Bean(destroyMethod = "close")
+    public ShardedUserRepository shardedUserRepository() {
+        if (credentialIndexEnabled || batchingEnabled || syntheticUsers > 0) {
+            throw new IllegalStateException("sharding.enabled cannot be combined with auth.credential-index.enabled, "
+                + "user.batching.enabled or seed.synthetic.users: they read the JPA users table directly");
+        }
+        List<DataSource> shards = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(dataSource(urlTemplate.replace("{shard}", String.valueOf(shard))));
+        }
+        ShardedUserRepository repository = new ShardedUserRepository(shards, dataSource(directoryUrl), scatterPool());
+        repository.createSchema();
+        return repository;
+    }
+
+    private DataSource dataSource(String url) {
+        return DataSourceBuilder.create()
+            .url(url)
+            .username(username)
+            .password(password)
+            .build();
+    }
+
+    private ExecutorService scatterPool() {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(scatterThreads, task -> {
+            Thread thread = new Thread(task, "shard-scatter-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.userservice.config;
+
+import com.ecommerce.userservice.sqlstats.SqlStatistics;
+import com.ecommerce.userservice.sqlstats.SqlStatisticsDataSource;
+import com.ecommerce.userservice.sqlstats.SqlStatsEndpoint;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces {@code spring.jpa.show-sql}: the {@code dataSource} bean is wrapped so every statement is
+ * timed and grouped in {@link SqlStatistics}, readable at {@code /actuator/sqlstats}. On by default;
+ * {@code sql.stats.enabled=false} removes the wrapper.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatisticsConfig {
+
+    @Bean
+    public SqlStatistics sqlStatistics(@Value("${sql.stats.slow-threshold-ms:100}") long slowThresholdMs,
+                                       @Value("${sql.stats.max-statements:500}") int maxStatements,
+                                       @Value("${sql.stats.slow-samples:50}") int slowSamples) {
+        return new SqlStatistics(slowThresholdMs, maxStatements, slowSamples);
+    }
+
+    @Bean
+    public SqlStatsEndpoint sqlStatsEndpoint(SqlStatistics sqlStatistics) {
+        return new SqlStatsEndpoint(sqlStatistics);
+    }
+
+    // Static so that registering the post-processor does not instantiate this configuration early
+    @Bean
+    static BeanPostProcessor sqlStatisticsDataSourceWrapper(ObjectProvider<SqlStatistics> sqlStatistics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                    return SqlStatisticsDataSource.wrap(dataSource, sqlStatistics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,194 @@
+package com.ecommerce.userservice.config;
+
+import com.ecommerce.userservice.event.UsersBulkLoadedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates {@code seed.synthetic.users} extra users for load testing, on top of the canonical seed users.
+ *
+ * Rows are built from a seeded random source, so the same seed always yields the same dataset, and
+ * written with JDBC batch inserts, one transaction per batch. BCrypt is far too slow to run per row,
+ * so a small pool of hashes of {@code seed.synthetic.password} is computed up front and shared;
+ * each hash has its own salt, and every generated user can log in with that password.
+ *
+ * In background mode the load runs on its own thread after startup. This bean is also a health
+ * indicator, included in the readiness group, that reports OUT_OF_SERVICE until the load finishes.
+ */
+@Component
+public class SyntheticUserGenerator implements HealthIndicator {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO users (username, email, password, first_name, last_name, address, phone_number, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+        "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+        "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Betty", "Mark", "Sandra", "Paul", "Ashley",
+        "Steven", "Kimberly", "Andrew", "Emily", "Kenneth", "Donna", "Joshua", "Michelle", "Kevin", "Carol"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+        "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+        "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores"
+    };
+
+    private static final String[] STREETS = { "Main St", "Oak Ave", "Pine Rd", "Elm St", "Maple Dr", "Cedar Ln", "Birch Ave", "Willow St" };
+
+    private static final String[] CITIES = {
+        "Anytown, ST 12345", "Springfield, IL 62701", "Austin, TX 78701", "Denver, CO 80201",
+        "Seattle, WA 98101", "Portland, OR 97201", "Miami, FL 33101", "Boston, MA 02101"
+    };
+
+    private static final String[] DOMAINS = { "example.com", "mail.example.org", "example.net", "corp.example.com" };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${seed.synthetic.users:0}")
+    private long userCount;
+
+    @Value("${seed.synthetic.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${seed.synthetic.password:password123}")
+    private String password;
+
+    @Value("${seed.synthetic.password-pool-size:16}")
+    private int passwordPoolSize;
+
+    @Value("${seed.synthetic.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${seed.synthetic.background:false}")
+    private boolean background;
+
+    // Skew of first and last names: 1.0 is uniform, larger values favour the head of the lists
+    @Value("${seed.synthetic.name-skew:2.0}")
+    private double nameSkew;
+
+    @Value("${seed.synthetic.address-ratio:0.8}")
+    private double addressRatio;
+
+    @Value("${seed.synthetic.phone-ratio:0.6}")
+    private double phoneRatio;
+
+    private final AtomicLong inserted = new AtomicLong();
+    private volatile boolean loading;
+    private volatile Throwable failure;
+
+    /**
+     * Starts generation if enabled: inline when blocking, otherwise on a background thread.
+     */
+    public void start() {
+        if (userCount <= 0) {
+            return;
+        }
+        loading = true;
+        if (!background) {
+            generate();
+            return;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                generate();
+            } catch (RuntimeException e) {
+                System.out.println("❌ Synthetic user generation failed: " + e.getMessage());
+            }
+        }, "synthetic-user-generator");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void generate() {
+        long started = System.nanoTime();
+        System.out.println("🧪 Generating " + userCount + " synthetic users (seed " + randomSeed + ")...");
+        try {
+            String[] hashes = hashPool();
+            SplittableRandom random = new SplittableRandom(randomSeed);
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            for (long i = 0; i < userCount; i++) {
+                batch.add(row(random, i, hashes));
+                if (batch.size() == batchSize || i == userCount - 1) {
+                    List<Object[]> rows = batch;
+                    transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+                    inserted.addAndGet(rows.size());
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            loading = false;
+        }
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        System.out.println("✅ Generated " + inserted.get() + " synthetic users in " + elapsedMs + " ms ("
+            + (inserted.get() * 1000 / elapsedMs) + " rows/s)");
+        eventPublisher.publishEvent(new UsersBulkLoadedEvent(inserted.get()));
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = failure != null ? Health.down(new IllegalStateException(failure.getMessage()))
+            : loading ? Health.outOfService() : Health.up();
+        return health.withDetail("inserted", inserted.get()).withDetail("target", Math.max(userCount, 0)).build();
+    }
+
+    private String[] hashPool() {
+        String[] hashes = new String[Math.max(1, passwordPoolSize)];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = passwordEncoder.encode(password);
+        }
+        return hashes;
+    }
+
+    private Object[] row(SplittableRandom random, long sequence, String[] hashes) {
+        String firstName = pick(random, FIRST_NAMES);
+        String lastName = pick(random, LAST_NAMES);
+        // The sequence number keeps usernames unique; the canonical seed users never carry one
+        String username = firstName.toLowerCase(Locale.ROOT) + "." + lastName.toLowerCase(Locale.ROOT) + "." + sequence;
+        String email = username + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+        String address = random.nextDouble() < addressRatio
+            ? (1 + random.nextInt(9999)) + " " + STREETS[random.nextInt(STREETS.length)] + ", " + CITIES[random.nextInt(CITIES.length)]
+            : null;
+        String phone = random.nextDouble() < phoneRatio
+            ? String.format("+1-555-%04d", random.nextInt(10000))
+            : null;
+        return new Object[] { username, email, hashes[(int) (sequence % hashes.length)], firstName, lastName, address, phone };
+    }
+
+    private String pick(SplittableRandom random, String[] values) {
+        int index = (int) (values.length * Math.pow(random.nextDouble(), nameSkew));
+        return values[Math.min(index, values.length - 1)];
+    }
+}
@@ -0,0 +1,149 @@
+package com.ecommerce.userservice.config;
+
+import com.ecommerce.userservice.ratelimit.Bulkhead;
+import com.ecommerce.userservice.ratelimit.BulkheadInterceptor;
+import com.ecommerce.userservice.ratelimit.ConcurrencyLimitInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request admission for the user API. Bulkheads come first and keep each endpoint class to its own
+ * share of the worker threads; the adaptive limit then guards each endpoint. The change stream and
+ * the CSV export are long-lived responses whose duration says nothing about service latency, so they
+ * are not limited.
+ *
+ * Bulkhead endpoint names are checked against the mapped /api controller methods once the context is
+ * up; a name that matches none, or a handler without a bulkhead, fails startup. The export has its own
+ * small bulkhead: it is excluded from the adaptive limit but still holds a worker for the whole table.
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${concurrency.limit.enabled:true}")
+    private boolean concurrencyLimitEnabled;
+
+    @Value("${concurrency.limit.initial:20}")
+    private int initialLimit;
+
+    @Value("${concurrency.limit.min:4}")
+    private int minLimit;
+
+    @Value("${concurrency.limit.max:200}")
+    private int maxLimit;
+
+    @Value("${concurrency.limit.tolerance:2.0}")
+    private double tolerance;
+
+    @Value("${bulkhead.enabled:true}")
+    private boolean bulkheadEnabled;
+
+    @Value("${bulkhead.auth.max-concurrent:8}")
+    private int authMaxConcurrent;
+
+    @Value("${bulkhead.auth.max-queued:16}")
+    private int authMaxQueued;
+
+    @Value("${bulkhead.auth.max-wait-ms:1000}")
+    private long authMaxWaitMs;
+
+    @Value("${bulkhead.auth.endpoints:UserController.registerUser,UserController.loginUser}")
+    private String[] authEndpoints;
+
+    @Value("${bulkhead.bulk.max-concurrent:4}")
+    private int bulkMaxConcurrent;
+
+    @Value("${bulkhead.bulk.max-queued:8}")
+    private int bulkMaxQueued;
+
+    @Value("${bulkhead.bulk.max-wait-ms:2000}")
+    private long bulkMaxWaitMs;
+
+    @Value("${bulkhead.bulk.endpoints:UserController.getAllUsers,UserController.getAllUserFields,UserController.batchUpdateUsers}")
+    private String[] bulkEndpoints;
+
+    @Value("${bulkhead.lookup.max-concurrent:64}")
+    private int lookupMaxConcurrent;
+
+    @Value("${bulkhead.lookup.max-queued:64}")
+    private int lookupMaxQueued;
+
+    @Value("${bulkhead.lookup.max-wait-ms:100}")
+    private long lookupMaxWaitMs;
+
+    @Value("${bulkhead.lookup.endpoints:UserController.getUserById,UserController.getUserFieldsById,UserController.searchUsers,"
+        + "UserController.getUserIdBitmap,UserController.validateToken,UserController.streamChanges}")
+    private String[] lookupEndpoints;
+
+    @Value("${bulkhead.write.max-concurrent:12}")
+    private int writeMaxConcurrent;
+
+    @Value("${bulkhead.write.max-queued:16}")
+    private int writeMaxQueued;
+
+    @Value("${bulkhead.write.max-wait-ms:500}")
+    private long writeMaxWaitMs;
+
+    @Value("${bulkhead.write.endpoints:UserController.updateUser,UserController.patchUser}")
+    private String[] writeEndpoints;
+
+    @Value("${bulkhead.export.max-concurrent:2}")
+    private int exportMaxConcurrent;
+
+    @Value("${bulkhead.export.max-queued:4}")
+    private int exportMaxQueued;
+
+    @Value("${bulkhead.export.max-wait-ms:1000}")
+    private long exportMaxWaitMs;
+
+    @Value("${bulkhead.export.endpoints:UserController.exportUsers}")
+    private String[] exportEndpoints;
+
+    private BulkheadInterceptor bulkheadInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (bulkheadEnabled) {
+            bulkheadInterceptor = new BulkheadInterceptor(meterRegistry.getIfAvailable())
+                .add(new Bulkhead("auth", authMaxConcurrent, authMaxQueued, authMaxWaitMs), List.of(authEndpoints))
+                .add(new Bulkhead("bulk", bulkMaxConcurrent, bulkMaxQueued, bulkMaxWaitMs), List.of(bulkEndpoints))
+                .add(new Bulkhead("lookup", lookupMaxConcurrent, lookupMaxQueued, lookupMaxWaitMs), List.of(lookupEndpoints))
+                .add(new Bulkhead("write", writeMaxConcurrent, writeMaxQueued, writeMaxWaitMs), List.of(writeEndpoints))
+                .add(new Bulkhead("export", exportMaxConcurrent, exportMaxQueued, exportMaxWaitMs), List.of(exportEndpoints));
+            registry.addInterceptor(bulkheadInterceptor).addPathPatterns("/api/**");
+        }
+        if (concurrencyLimitEnabled) {
+            registry.addInterceptor(new ConcurrencyLimitInterceptor(initialLimit, minLimit, maxLimit, tolerance, meterRegistry.getIfAvailable()))
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/users/changes", "/api/users/export");
+        }
+    }
+
+    @EventListener
+    public void verifyBulkheadEndpoints(ContextRefreshedEvent event) {
+        if (bulkheadInterceptor != null) {
+            RequestMappingHandlerMapping mapping = event.getApplicationContext()
+                .getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+            // Only the handlers behind /api/**, where the interceptor is registered
+            List<HandlerMethod> guarded = mapping.getHandlerMethods().entrySet().stream()
+                .filter(entry -> entry.getKey().getPatternValues().stream().anyMatch(pattern -> pattern.startsWith("/api/")))
+                .map(Map.Entry::getValue)
+                .toList();
+            bulkheadInterceptor.verify(guarded);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.userservice.controller;
+
+import com.ecommerce.userservice.codec.UserWireFormat;
+
+/**
+ * Strong ETags derived from the {@code User} version column, e.g. {@code "3"}.
+ */
+final class ETags {
+
+    private ETags() {}
+
+    static String of(Long version) {
+        return "\"" + (version != null ? version : 0L) + "\"";
+    }
+
+    /**
+     * Each encoding of the same version is a different representation, so binary formats get a suffix.
+     */
+    static String of(Long version, UserWireFormat format) {
+        if (format.getEtagSuffix() == null) {
+            return of(version);
+        }
+        return "\"" + (version != null ? version : 0L) + "-" + format.getEtagSuffix() + "\"";
+    }
+
+    /**
+     * If-None-Match uses weak comparison, so {@code W/"3"} matches {@code "3"}.
+     */
+    static boolean matchesIfNoneMatch(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the version a conditional write expects, or null for {@code *}.
+     * Only a single strong ETag is accepted.
+     */
+    static Long parseIfMatch(String header) {
+        String tag = header.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("If-Match must be a single strong ETag");
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        int suffix = value.indexOf('-');
+        try {
+            return Long.parseLong(suffix >= 0 ? value.substring(0, suffix) : value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unknown ETag: " + tag);
+        }
+    }
+}
@@ -1,19 +1,51 @@
 package com.ecommerce.userservice.controller;
 
+import com.ecommerce.userservice.bitmap.UserIdBitmap;
+import com.ecommerce.userservice.cache.UserResponseCache;
+import com.ecommerce.userservice.codec.UserWireFormat;
+import com.ecommerce.userservice.idempotency.IdempotencyStore;
 import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserFields;
+import com.ecommerce.userservice.model.UserPatch;
+import com.ecommerce.userservice.model.UserPatchResult;
+import com.ecommerce.userservice.outbox.UserChangeStream;
+import com.ecommerce.userservice.ratelimit.LoginRateLimiter;
+import com.ecommerce.userservice.search.UserSearchIndex;
+import com.ecommerce.userservice.service.UserBatchUpdateService;
+import com.ecommerce.userservice.service.UserExportService;
 import com.ecommerce.userservice.service.UserService;
 import com.ecommerce.userservice.telemetry.TelemetryClient;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/users")
@@ -21,31 +53,65 @@ import java.util.List;
 @Tag(name = "User Management", description = "API for user management operations including registration, authentication, and profile management")
 public class UserController {
     
+    private static final String BITMAP_VERSION_HEADER = "Bitmap-Version";
+    private static final String BITMAP_DELTA_HEADER = "Bitmap-Delta";
+    
     @Autowired
     private UserService userService;
     
     @Autowired
     private TelemetryClient telemetryClient;
     
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+    
+    @Autowired
+    private UserResponseCache responseCache;
+    
+    @Autowired
+    private UserChangeStream changeStream;
+    
+    @Autowired
+    private UserSearchIndex searchIndex;
+    
+    @Autowired
+    private UserExportService exportService;
+    
+    @Autowired
+    private UserBatchUpdateService batchUpdateService;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private UserIdBitmap idBitmap;
+    
     @PostMapping("/register")
     @Operation(summary = "Register new user", description = "Creates a new user account with the provided user information")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User registered successfully"),
-        @ApiResponse(responseCode = "400", description = "Invalid user data or username already exists"),
+        @ApiResponse(responseCode = "400", description = "Invalid user data, username already exists or malformed Idempotency-Key"),
+        @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used with a different request body"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<User> registerUser(@RequestBody User user, HttpServletRequest request) {
+    public ResponseEntity<User> registerUser(@RequestBody User user,
+        @Parameter(description = "Client-chosen key; a retry with the same key gets the original response instead of registering again")
+        @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey,
+        HttpServletRequest request) {
         String traceId = telemetryClient.startTrace("register_user", "POST", request.getRequestURL().toString(), null);
         
-        try {
-            telemetryClient.logEvent("User registration started for: " + user.getUsername(), "INFO");
-            User savedUser = userService.registerUser(user);
-            telemetryClient.finishTrace("register_user", 200, null);
-            return ResponseEntity.ok(savedUser);
-        } catch (Exception e) {
-            telemetryClient.finishTrace("register_user", 500, e.getMessage());
-            throw e;
-        }
+        return idempotent(idempotencyKey, "register_user", null, request, () -> fingerprint(user, null), () -> {
+            try {
+                telemetryClient.log("INFO", "User registration started for: {}", user.getUsername());
+                User savedUser = userService.registerUser(user);
+                telemetryClient.finishTrace("register_user", 200, null);
+                return ResponseEntity.ok(savedUser);
+            } catch (Exception e) {
+                telemetryClient.finishTrace("register_user", 500, e.getMessage());
+                throw e;
+            }
+        });
     }
     
     @PostMapping("/login")
@@ -54,11 +120,18 @@ public class UserController {
         @ApiResponse(responseCode = "200", description = "Login successful, token returned"),
         @ApiResponse(responseCode = "401", description = "Invalid username or password"),
         @ApiResponse(responseCode = "400", description = "Invalid login request data"),
+        @ApiResponse(responseCode = "429", description = "Too many login attempts for this username or client"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<String> loginUser(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         telemetryClient.startTrace("login_user", "POST", request.getRequestURL().toString(), null);
         
+        // Reject before BCrypt so credential-stuffing bursts can't pin the CPU
+        if (!loginRateLimiter.tryAcquire(loginRequest.getUsername(), request.getRemoteAddr())) {
+            telemetryClient.finishTrace("login_user", 429, "Too many login attempts");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        
         try {
             String token = userService.authenticateUser(loginRequest.getUsername(), loginRequest.getPassword());
             telemetryClient.finishTrace("login_user", 200, null);
@@ -72,17 +145,215 @@ public class UserController {
     @GetMapping("/{id}")
     @Operation(summary = "Get user by ID", description = "Retrieves a specific user's information using their unique identifier")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "User found and returned successfully"),
+        @ApiResponse(responseCode = "200", description = "User found and returned successfully",
+            content = {
+                @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = User.class)),
+                @Content(mediaType = "application/cbor", schema = @Schema(implementation = User.class)),
+                @Content(mediaType = "application/x-jackson-smile", schema = @Schema(implementation = User.class))
+            }),
+        @ApiResponse(responseCode = "304", description = "User unchanged since the version in If-None-Match"),
         @ApiResponse(responseCode = "404", description = "User not found with the provided ID"),
+        @ApiResponse(responseCode = "406", description = "None of the accepted media types is supported"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<User> getUserById(
+    public ResponseEntity<byte[]> getUserById(
         @Parameter(description = "Unique identifier of the user", required = true, example = "1")
-        @PathVariable Long id, HttpServletRequest request) {
+        @PathVariable Long id,
+        @Parameter(description = "ETag from a previous response; returns 304 if the user is unchanged")
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        HttpServletRequest request) {
         String traceId = telemetryClient.startTrace("get_user", "GET", request.getRequestURL().toString(), id.toString());
         
+        UserWireFormat format = UserWireFormat.negotiate(accept);
+        if (format == null) {
+            telemetryClient.finishTrace("get_user", 406, "Unsupported Accept: " + accept);
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        
+        try {
+            // Hot path: pre-encoded bytes go straight to the output stream, no entity load or Jackson
+            UserResponseCache.CachedResponse response = responseCache.get(id);
+            if (response == null) {
+                long stamp = responseCache.stamp();
+                response = responseCache.put(userService.getUserById(id), stamp);
+            }
+            String etag = ETags.of(response.getVersion(), format);
+            if (ETags.matchesIfNoneMatch(ifNoneMatch, etag)) {
+                telemetryClient.finishTrace("get_user", 304, null);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+            telemetryClient.finishTrace("get_user", 200, null);
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(format.getMediaType())
+                .body(responseCache.body(response, format));
+        } catch (Exception e) {
+            telemetryClient.finishTrace("get_user", 404, e.getMessage());
+            throw e;
+        }
+    }
+    
+    @GetMapping("/changes")
+    @Operation(summary = "Stream user changes", description = "Streams registrations and profile updates from the outbox, in batches, starting after the given offset. " +
+                "Send Accept: text/event-stream for SSE (resume with Last-Event-ID) or anything else for NDJSON (resume with ?after=)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Change stream opened"),
+        @ApiResponse(responseCode = "503", description = "Too many open change streams"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<ResponseBodyEmitter> streamChanges(
+        @Parameter(description = "Offset (sequenceNumber) of the last change already consumed", example = "0")
+        @RequestParam(defaultValue = "0") long after,
+        @Parameter(description = "Maximum number of changes per batch", example = "100")
+        @RequestParam(defaultValue = "100") int batchSize,
+        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        HttpServletRequest request) {
+        telemetryClient.startTrace("stream_user_changes", "GET", request.getRequestURL().toString(), null);
+        
+        boolean sse = accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        long offset = after;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                offset = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                telemetryClient.finishTrace("stream_user_changes", 400, "Invalid Last-Event-ID: " + lastEventId);
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        
+        ResponseBodyEmitter emitter = changeStream.subscribe(offset, batchSize, sse);
+        if (emitter == null) {
+            telemetryClient.finishTrace("stream_user_changes", 503, "Too many change stream subscribers");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        telemetryClient.finishTrace("stream_user_changes", 200, null);
+        return ResponseEntity.ok()
+            .contentType(sse ? MediaType.TEXT_EVENT_STREAM : UserChangeStream.APPLICATION_NDJSON)
+            .body(emitter);
+    }
+    
+    @GetMapping("/search")
+    @Operation(summary = "Search users by prefix", description = "Type-ahead search over username, email, first and last name, served from an in-memory index. " +
+                "Matching is case-insensitive and results are ordered by the matching term")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Matching users returned successfully"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<Map<String, Object>>> searchUsers(
+        @Parameter(description = "Prefix of a username, email, first or last name", required = true, example = "jo")
+        @RequestParam String prefix,
+        @Parameter(description = "Maximum number of users to return", example = "10")
+        @RequestParam(defaultValue = "10") int limit,
+        HttpServletRequest request) {
+        telemetryClient.startTrace("search_users", "GET", request.getRequestURL().toString(), null);
+        
+        try {
+            List<Map<String, Object>> users = searchIndex.search(prefix, limit);
+            telemetryClient.finishTrace("search_users", 200, null);
+            return ResponseEntity.ok(users);
+        } catch (Exception e) {
+            telemetryClient.finishTrace("search_users", 500, e.getMessage());
+            throw e;
+        }
+    }
+    
+    @GetMapping("/ids/bitmap")
+    @Operation(summary = "Bitmap of all user ids", description = "Every user id as a portable Roaring bitmap, so callers can check that a user exists without a request per id. " +
+                "Pass the Bitmap-Version of a previous download as since to get only the ids added after it; Bitmap-Delta tells whether the body is such a delta or the full set")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bitmap returned", content = @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)),
+        @ApiResponse(responseCode = "304", description = "No ids added since the version in If-None-Match or since"),
+        @ApiResponse(responseCode = "400", description = "Unknown since version"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<byte[]> getUserIdBitmap(
+        @Parameter(description = "Bitmap-Version of a previous download; returns only the ids added after it", example = "m1x2y3z4-1500")
+        @RequestParam(required = false) String since,
+        @Parameter(description = "ETag from a previous response; returns 304 if no users were added since")
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        HttpServletRequest request) {
+        telemetryClient.startTrace("get_user_id_bitmap", "GET", request.getRequestURL().toString(), null);
+        
+        try {
+            String version = idBitmap.version();
+            String etag = "\"" + version + "\"";
+            if (version.equals(since) || ETags.matchesIfNoneMatch(ifNoneMatch, etag)) {
+                telemetryClient.finishTrace("get_user_id_bitmap", 304, null);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).header(BITMAP_VERSION_HEADER, version).build();
+            }
+            UserIdBitmap.Snapshot snapshot = idBitmap.since(since);
+            telemetryClient.finishTrace("get_user_id_bitmap", 200, null);
+            return ResponseEntity.ok()
+                .eTag("\"" + snapshot.getVersion() + "\"")
+                .cacheControl(CacheControl.noCache())
+                .header(BITMAP_VERSION_HEADER, snapshot.getVersion())
+                .header(BITMAP_DELTA_HEADER, String.valueOf(snapshot.isDelta()))
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(snapshot.getBody());
+        } catch (IllegalArgumentException e) {
+            telemetryClient.finishTrace("get_user_id_bitmap", 400, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            telemetryClient.finishTrace("get_user_id_bitmap", 500, e.getMessage());
+            throw e;
+        }
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Export all users as CSV", description = "Streams every user as CSV (id, username, email, firstName, lastName, address, phoneNumber) " +
+                "without loading them all into memory; password hashes are never exported. Use gzip=true for a gzip-compressed file")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "CSV export streamed", content = @Content(mediaType = "text/csv")),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public void exportUsers(
+        @Parameter(description = "Compress the export with gzip", example = "false")
+        @RequestParam(defaultValue = "false") boolean gzip,
+        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        telemetryClient.startTrace("export_users", "GET", request.getRequestURL().toString(), null);
+        
+        response.setContentType(gzip ? "application/gzip" : "text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv" + (gzip ? ".gz" : "") + "\"");
         try {
-            User user = userService.getUserById(id);
+            OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream(), 65536) : response.getOutputStream();
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 65536)) {
+                exportService.exportCsv(writer);
+            }
+            telemetryClient.finishTrace("export_users", 200, null);
+        } catch (IOException | RuntimeException e) {
+            telemetryClient.finishTrace("export_users", 500, e.getMessage());
+            throw e;
+        }
+    }
+    
+    @GetMapping(value = "/{id}", params = "fields")
+    @Operation(summary = "Get selected fields of a user", description = "Selects only the requested columns of a user; the password hash is never selectable")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Requested fields returned successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested"),
+        @ApiResponse(responseCode = "404", description = "User not found with the provided ID"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<Map<String, Object>> getUserFieldsById(
+        @Parameter(description = "Unique identifier of the user", required = true, example = "1")
+        @PathVariable Long id,
+        @Parameter(description = "Comma-separated fields to return; empty selects id, username and email", example = "id,username,email")
+        @RequestParam String fields, HttpServletRequest request) {
+        telemetryClient.startTrace("get_user", "GET", request.getRequestURL().toString(), id.toString());
+        
+        List<String> selected;
+        try {
+            selected = UserFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            telemetryClient.finishTrace("get_user", 400, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        
+        try {
+            Map<String, Object> user = userService.getUserFieldsById(id, selected);
             telemetryClient.finishTrace("get_user", 200, null);
             return ResponseEntity.ok(user);
         } catch (Exception e) {
@@ -110,27 +381,147 @@ public class UserController {
         }
     }
     
+    @GetMapping(params = "fields")
+    @Operation(summary = "Retrieve selected fields of all users", description = "Selects only the requested columns for every user; the password hash is never selectable")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Requested fields returned successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<Map<String, Object>>> getAllUserFields(
+        @Parameter(description = "Comma-separated fields to return; empty selects id, username and email", example = "id,username,email")
+        @RequestParam String fields, HttpServletRequest request) {
+        telemetryClient.startTrace("get_all_users", "GET", request.getRequestURL().toString(), null);
+        
+        List<String> selected;
+        try {
+            selected = UserFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            telemetryClient.finishTrace("get_all_users", 400, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        
+        try {
+            List<Map<String, Object>> users = userService.getAllUserFields(selected);
+            telemetryClient.finishTrace("get_all_users", 200, null);
+            return ResponseEntity.ok(users);
+        } catch (Exception e) {
+            telemetryClient.finishTrace("get_all_users", 500, e.getMessage());
+            throw e;
+        }
+    }
+    
     @PutMapping("/{id}")
     @Operation(summary = "Update user", description = "Updates an existing user's information with the provided data")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User updated successfully"),
-        @ApiResponse(responseCode = "400", description = "Invalid user data provided"),
+        @ApiResponse(responseCode = "400", description = "Invalid user data, malformed If-Match header or malformed Idempotency-Key"),
         @ApiResponse(responseCode = "404", description = "User not found with the provided ID"),
+        @ApiResponse(responseCode = "409", description = "User was modified concurrently, or a request with the same Idempotency-Key is still in progress"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used with a different request body"),
+        @ApiResponse(responseCode = "412", description = "User version no longer matches If-Match"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<User> updateUser(
         @Parameter(description = "Unique identifier of the user to update", required = true, example = "1")
-        @PathVariable Long id, @RequestBody User user, HttpServletRequest request) {
+        @PathVariable Long id, @RequestBody User user,
+        @Parameter(description = "ETag the client last saw; the update is rejected if the user changed since")
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @Parameter(description = "Client-chosen key; a retry with the same key gets the original response instead of updating again")
+        @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey,
+        HttpServletRequest request) {
         telemetryClient.startTrace("update_user", "PUT", request.getRequestURL().toString(), id.toString());
         
+        Long expectedVersion;
         try {
-            User updatedUser = userService.updateUser(id, user);
-            telemetryClient.finishTrace("update_user", 200, null);
-            return ResponseEntity.ok(updatedUser);
-        } catch (Exception e) {
-            telemetryClient.finishTrace("update_user", 500, e.getMessage());
-            throw e;
+            expectedVersion = ifMatch != null ? ETags.parseIfMatch(ifMatch) : null;
+        } catch (IllegalArgumentException e) {
+            telemetryClient.finishTrace("update_user", 400, e.getMessage());
+            return ResponseEntity.badRequest().build();
         }
+        
+        return idempotent(idempotencyKey, "update_user", id, request, () -> fingerprint(user, expectedVersion), () -> {
+            try {
+                User updatedUser = userService.updateUser(id, user, expectedVersion);
+                telemetryClient.finishTrace("update_user", 200, null);
+                return ResponseEntity.ok().eTag(ETags.of(updatedUser.getVersion())).body(updatedUser);
+            } catch (OptimisticLockingFailureException e) {
+                HttpStatus status = ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+                telemetryClient.finishTrace("update_user", status.value(), e.getMessage());
+                return ResponseEntity.<User>status(status).build();
+            } catch (Exception e) {
+                telemetryClient.finishTrace("update_user", 500, e.getMessage());
+                throw e;
+            }
+        });
+    }
+    
+    @PatchMapping("/{id}")
+    @Operation(summary = "Partially update user", description = "Updates only the supplied fields with a single targeted UPDATE; a null value clears the field")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "User updated successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown, immutable or invalid field supplied, or malformed Idempotency-Key"),
+        @ApiResponse(responseCode = "404", description = "User not found with the provided ID"),
+        @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used with a different request body"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<Void> patchUser(
+        @Parameter(description = "Unique identifier of the user to update", required = true, example = "1")
+        @PathVariable Long id, @RequestBody Map<String, String> changes,
+        @Parameter(description = "Client-chosen key; a retry with the same key gets the original response instead of updating again")
+        @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey,
+        HttpServletRequest request) {
+        telemetryClient.startTrace("patch_user", "PATCH", request.getRequestURL().toString(), id.toString());
+        
+        try {
+            UserFields.validateChanges(changes);
+        } catch (IllegalArgumentException e) {
+            telemetryClient.finishTrace("patch_user", 400, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return idempotent(idempotencyKey, "patch_user", id, request,
+            () -> IdempotencyStore.fingerprint(new TreeMap<>(changes)), () -> {
+            try {
+                userService.patchUser(id, changes);
+                telemetryClient.finishTrace("patch_user", 204, null);
+                return ResponseEntity.noContent().build();
+            } catch (Exception e) {
+                telemetryClient.finishTrace("patch_user", 404, e.getMessage());
+                throw e;
+            }
+        });
+    }
+    
+    @PutMapping("/batch")
+    @Operation(summary = "Batch update users", description = "Applies many partial updates in chunked transactions and returns one result per item, in request order; an item with a version is only applied if it is still current")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed; see the status of each item"),
+        @ApiResponse(responseCode = "400", description = "Empty batch, more items than allowed or malformed Idempotency-Key"),
+        @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used with a different request body"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<UserPatchResult>> batchUpdateUsers(@RequestBody List<UserPatch> patches,
+        @Parameter(description = "Client-chosen key; a retry with the same key gets the original results instead of applying the batch again")
+        @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey,
+        HttpServletRequest request) {
+        telemetryClient.startTrace("batch_update_users", "PUT", request.getRequestURL().toString(), null);
+        
+        return idempotent(idempotencyKey, "batch_update_users", null, request, () -> fingerprint(patches), () -> {
+            try {
+                List<UserPatchResult> results = batchUpdateService.updateAll(patches);
+                telemetryClient.finishTrace("batch_update_users", 200, null);
+                return ResponseEntity.ok(results);
+            } catch (IllegalArgumentException e) {
+                telemetryClient.finishTrace("batch_update_users", 400, e.getMessage());
+                return ResponseEntity.<List<UserPatchResult>>badRequest().build();
+            } catch (Exception e) {
+                telemetryClient.finishTrace("batch_update_users", 500, e.getMessage());
+                throw e;
+            }
+        });
     }
     
     @GetMapping("/validate/{token}")
@@ -155,6 +546,57 @@ public class UserController {
         }
     }
     
+    // Runs the handler body at most once per Idempotency-Key and caller. Responses the body did not produce
+    // itself (replays, a duplicate still in progress, a reused key, a malformed key) close the trace here instead.
+    private <T> ResponseEntity<T> idempotent(String key, String operation, Long target, HttpServletRequest request,
+                                             Supplier<String> fingerprint, Supplier<ResponseEntity<T>> action) {
+        if (key != null && !IdempotencyStore.isValidKey(key)) {
+            telemetryClient.finishTrace(operation, 400, "Malformed Idempotency-Key");
+            return ResponseEntity.badRequest().build();
+        }
+        AtomicBoolean ran = new AtomicBoolean();
+        String scope = caller(request) + ":" + (target != null ? operation + ":" + target : operation);
+        ResponseEntity<T> response;
+        try {
+            response = idempotencyStore.execute(key, scope, key != null ? fingerprint.get() : null, () -> {
+                ran.set(true);
+                return action.get();
+            });
+        } catch (RuntimeException e) {
+            // A duplicate that waited on an original which failed
+            if (!ran.get()) {
+                telemetryClient.finishTrace(operation, 500, e.getMessage());
+            }
+            throw e;
+        }
+        if (!ran.get()) {
+            telemetryClient.finishTrace(operation, response.getStatusCode().value(), null);
+        }
+        return response;
+    }
+    
+    // Authenticated callers by name, anonymous ones (registration) by client address
+    private static String caller(HttpServletRequest request) {
+        return request.getUserPrincipal() != null ? "user=" + request.getUserPrincipal().getName() : "ip=" + request.getRemoteAddr();
+    }
+    
+    // expectedVersion is null for registration and for a PUT without If-Match
+    private static String fingerprint(User user, Long expectedVersion) {
+        return IdempotencyStore.fingerprint(user.getUsername(), user.getEmail(), user.getPassword(), user.getFirstName(),
+            user.getLastName(), user.getAddress(), user.getPhoneNumber(), expectedVersion);
+    }
+    
+    private static String fingerprint(List<UserPatch> patches) {
+        Object[] parts = new Object[patches.size() * 3];
+        for (int i = 0; i < patches.size(); i++) {
+            UserPatch patch = patches.get(i);
+            parts[i * 3] = patch.getId();
+            parts[i * 3 + 1] = patch.getChanges() != null ? new TreeMap<>(patch.getChanges()) : null;
+            parts[i * 3 + 2] = patch.getVersion();
+        }
+        return IdempotencyStore.fingerprint(parts);
+    }
+    
     public static class LoginRequest {
         private String username;
         private String password;
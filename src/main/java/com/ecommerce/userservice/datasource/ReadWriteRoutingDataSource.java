@@ -0,0 +1,49 @@
+package com.ecommerce.userservice.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ *
+ * Must be wrapped in a {@code LazyConnectionDataSourceProxy}: the JPA transaction manager asks
+ * for a connection before the read-only flag is bound to the thread, so the physical connection
+ * has to be fetched lazily at the first statement for the lookup key to be correct.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> primaryPinned = new ThreadLocal<>();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentRoute();
+    }
+
+    public static Route currentRoute() {
+        if (Boolean.TRUE.equals(primaryPinned.get())
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    /** Pins reads to the primary and reports whether they already were. */
+    static boolean pinPrimary() {
+        boolean wasPinned = Boolean.TRUE.equals(primaryPinned.get());
+        primaryPinned.set(Boolean.TRUE);
+        return wasPinned;
+    }
+
+    static void unpin() { primaryPinned.remove(); }
+}
@@ -0,0 +1,93 @@
+package com.ecommerce.userservice.datasource;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers which users were written in the last few seconds so their reads can be pinned to the
+ * primary until the replica has caught up. Entries are keyed by both id and username because
+ * login looks users up by name.
+ *
+ * The window starts when the write commits, not when the event is published: until then the
+ * replica cannot have the row, and a slow commit would otherwise eat into the window.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private static final Scope NOOP = () -> {};
+    private static final Scope PINNED = ReadWriteRoutingDataSource::unpin;
+
+    @Value("${datasource.routing.read-your-writes-ms:2000}")
+    private long windowMs;
+
+    private final ConcurrentHashMap<Object, Long> recentWrites = new ConcurrentHashMap<>();
+    private final AtomicLong lastPurge = new AtomicLong();
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        recordWrite(event.getUserId(), event.getUsername());
+    }
+
+    public void recordWrite(Long userId, String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    startWindow(userId, username);
+                }
+            });
+        } else {
+            startWindow(userId, username);
+        }
+    }
+
+    private void startWindow(Long userId, String username) {
+        long deadline = System.currentTimeMillis() + windowMs;
+        if (userId != null) recentWrites.put(userId, deadline);
+        if (username != null) recentWrites.put(username, deadline);
+        purgeExpired();
+    }
+
+    /**
+     * Pins the current thread's reads to the primary if the given user id or username was written
+     * within the window. Close the returned scope once the read is done; closing restores whatever
+     * routing was in effect before, so an inner scope never unpins an outer one.
+     */
+    public Scope routeReadsFor(Object userKey) {
+        Long deadline = userKey != null ? recentWrites.get(userKey) : null;
+        if (deadline == null) {
+            return NOOP;
+        }
+        if (deadline < System.currentTimeMillis()) {
+            recentWrites.remove(userKey, deadline);
+            return NOOP;
+        }
+        return ReadWriteRoutingDataSource.pinPrimary() ? NOOP : PINNED;
+    }
+
+    public boolean isRecentlyWritten(Object userKey) {
+        Long deadline = recentWrites.get(userKey);
+        return deadline != null && deadline >= System.currentTimeMillis();
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        long previous = lastPurge.get();
+        if (now - previous < windowMs || !lastPurge.compareAndSet(previous, now)) {
+            return;
+        }
+        recentWrites.values().removeIf(deadline -> deadline < now);
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.userservice.event;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Published by {@code UserService} whenever a user row is created or modified, so that
+ * caches, indexes and routing state can react without the service knowing about each of them.
+ */
+public class UserChangedEvent {
+
+    public enum Type { REGISTERED, UPDATED }
+
+    private final Type type;
+    private final Long userId;
+    private final String username;
+    private final Map<String, Object> changes;
+
+    public UserChangedEvent(Type type, Long userId, String username) {
+        this(type, userId, username, Collections.emptyMap());
+    }
+
+    /**
+     * @param changes the new values of the fields that changed (never the password hash)
+     */
+    public UserChangedEvent(Type type, Long userId, String username, Map<String, Object> changes) {
+        this.type = type;
+        this.userId = userId;
+        this.username = username;
+        this.changes = changes;
+    }
+
+    public Type getType() { return type; }
+    public Long getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public Map<String, Object> getChanges() { return changes; }
+
+    @Override
+    public String toString() {
+        return "UserChangedEvent{" +
+                "type=" + type +
+                ", userId=" + userId +
+                ", username='" + username + '\'' +
+                '}';
+    }
+}
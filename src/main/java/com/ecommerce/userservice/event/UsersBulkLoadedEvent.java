@@ -0,0 +1,21 @@
+package com.ecommerce.userservice.event;
+
+/**
+ * Published after users were inserted in bulk, bypassing {@code UserService} and therefore
+ * {@link UserChangedEvent}, so that in-memory indexes can reload from the database.
+ */
+public class UsersBulkLoadedEvent {
+
+    private final long count;
+
+    public UsersBulkLoadedEvent(long count) {
+        this.count = count;
+    }
+
+    public long getCount() { return count; }
+
+    @Override
+    public String toString() {
+        return "UsersBulkLoadedEvent{count=" + count + '}';
+    }
+}
@@ -0,0 +1,214 @@
+package com.ecommerce.userservice.idempotency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs a mutating request at most once per {@code Idempotency-Key}. The first request with a key
+ * runs and, if it succeeds with a 2xx, its response is kept for {@code idempotency.ttl-seconds} and
+ * handed back to every retry with the {@code Idempotent-Replayed} header set. A duplicate that arrives
+ * while the original is still running waits for it instead of running again.
+ *
+ * Failures, whether an exception or a non-2xx response, are not kept: the next retry runs afresh.
+ * Keys are scoped by the caller, operation and target. Each entry also keeps a fingerprint of the
+ * request body; a key reused with a different body gets 422 instead of the first response.
+ */
+@Component
+public class IdempotencyStore implements MeterBinder {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+
+    public static boolean isValidKey(String key) {
+        return !key.isBlank() && key.length() <= MAX_KEY_LENGTH;
+    }
+
+    /**
+     * SHA-256 over the given request parts, each length-prefixed so that adjacent parts cannot run
+     * together. Parts are turned into strings with {@code String.valueOf}, so maps should be sorted.
+     */
+    public static String fingerprint(Object... parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        for (Object part : parts) {
+            String value = part == null ? "" : part.toString();
+            digest.update(((part == null ? -1 : value.length()) + ":" + value + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Runs {@code action} unless a response for the same scope and key is stored or being produced.
+     * Without a key the action simply runs. A duplicate that waits longer than
+     * {@code idempotency.wait-timeout-ms} for the original gets 409 with {@code Retry-After}; one whose
+     * {@code fingerprint} differs from the original's gets 422 straight away.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String key, String scope, String fingerprint, Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + '\n' + key;
+        Entry created = new Entry(fingerprint);
+        while (true) {
+            if (entries.size() >= maxEntries) {
+                trim();
+            }
+            Entry existing = entries.putIfAbsent(id, created);
+            if (existing == null) {
+                break;
+            }
+            if (existing.isExpired(System.nanoTime())) {
+                entries.remove(id, existing);
+                continue;
+            }
+            if (!Objects.equals(existing.fingerprint, fingerprint)) {
+                mismatched.increment();
+                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+            }
+            return (ResponseEntity<T>) replay(existing);
+        }
+
+        executed.increment();
+        try {
+            ResponseEntity<T> response = action.get();
+            if (response.getStatusCode().is2xxSuccessful()) {
+                created.expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds);
+            } else {
+                entries.remove(id, created);
+            }
+            created.response.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            entries.remove(id, created);
+            created.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("idempotency.requests", executed, LongAdder::doubleValue)
+            .description("Requests with an Idempotency-Key, by whether they ran or were answered from the store")
+            .tag("result", "executed")
+            .register(registry);
+        FunctionCounter.builder("idempotency.requests", replayed, LongAdder::doubleValue)
+            .description("Requests with an Idempotency-Key, by whether they ran or were answered from the store")
+            .tag("result", "replayed")
+            .register(registry);
+        FunctionCounter.builder("idempotency.requests", mismatched, LongAdder::doubleValue)
+            .description("Requests with an Idempotency-Key, by whether they ran or were answered from the store")
+            .tag("result", "mismatched")
+            .register(registry);
+        Gauge.builder("idempotency.entries", entries, ConcurrentHashMap::size)
+            .description("Stored and in-flight idempotent requests")
+            .register(registry);
+    }
+
+    private ResponseEntity<?> replay(Entry entry) {
+        ResponseEntity<?> original;
+        try {
+            original = entry.response.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).header(HttpHeaders.RETRY_AFTER, "1").build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        replayed.increment();
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(original.getHeaders());
+        headers.set(REPLAYED_HEADER, "true");
+        return new ResponseEntity<>(original.getBody(), headers, original.getStatusCode());
+    }
+
+    // Expired entries go first; if that is not enough, drop about a tenth of the finished ones
+    private void trim() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        int toRemove = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext() && toRemove > 0) {
+            if (it.next().expiresAt != 0) {
+                it.remove();
+                toRemove--;
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+        // 0 while the original request is still running
+        private volatile long expiresAt;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        boolean isExpired(long now) {
+            long deadline = expiresAt;
+            return deadline != 0 && now - deadline >= 0;
+        }
+    }
+}
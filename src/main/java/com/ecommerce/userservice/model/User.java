@@ -1,31 +1,57 @@
 package com.ecommerce.userservice.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
 @Table(name = "users")
+// Wire names are spelled out so renaming a Java property never changes the CBOR/Smile/JSON schema
+@JsonPropertyOrder({"id", "username", "email", "firstName", "lastName", "address", "phoneNumber", "version"})
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-natural-id")
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonProperty("id")
     private Long id;
     
+    @NaturalId
     @NotBlank
+    @JsonProperty("username")
     private String username;
     
     @Email
     @NotBlank
+    @JsonProperty("email")
     private String email;
     
     @NotBlank
+    @JsonProperty(value = "password", access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     
+    @JsonProperty("firstName")
     private String firstName;
+    @JsonProperty("lastName")
     private String lastName;
+    @JsonProperty("address")
     private String address;
+    @JsonProperty("phoneNumber")
     private String phoneNumber;
 
+    @Version
+    @JsonProperty("version")
+    private Long version;
+
     public User() {}
 
     public User(String username, String email, String password) {
@@ -58,6 +84,9 @@ public class User {
     
     public String getPhoneNumber() { return phoneNumber; }
     public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 
     @Override
     public boolean equals(Object o) {
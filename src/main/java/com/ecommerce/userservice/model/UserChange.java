@@ -0,0 +1,74 @@
+package com.ecommerce.userservice.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Outbox row written in the same transaction as the user change it describes.
+ * The id is taken at insert, so ids can become visible out of order; the sequence number is assigned
+ * after commit, in commit order, and is the stream offset consumers resume from.
+ */
+@Entity
+@Table(name = "user_outbox", indexes = @Index(name = "idx_user_outbox_sequence", columnList = "sequenceNumber", unique = true))
+public class UserChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 16)
+    private String type;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // Null until UserChangeSequencer has numbered the committed row
+    private Long sequenceNumber;
+
+    public UserChange() {}
+
+    public UserChange(Long userId, String type, String payload) {
+        this.userId = userId;
+        this.type = type;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    @JsonRawValue
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Long getSequenceNumber() { return sequenceNumber; }
+    public void setSequenceNumber(Long sequenceNumber) { this.sequenceNumber = sequenceNumber; }
+
+    @Override
+    public String toString() {
+        return "UserChange{" +
+                "id=" + id +
+                ", sequenceNumber=" + sequenceNumber +
+                ", userId=" + userId +
+                ", type='" + type + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.userservice.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Whitelist of {@link User} attributes that may be selected through {@code ?fields=}.
+ * The password hash is deliberately absent so it can never be projected.
+ */
+public final class UserFields {
+
+    public static final List<String> SELECTABLE = List.of(
+        "id", "username", "email", "firstName", "lastName", "address", "phoneNumber");
+
+    public static final List<String> DEFAULT = List.of("id", "username", "email");
+
+    /** Attributes a client may change; id, username and password are not among them. */
+    public static final List<String> UPDATABLE = List.of(
+        "email", "firstName", "lastName", "address", "phoneNumber");
+
+    private UserFields() {}
+
+    /**
+     * Parses a comma-separated field list, preserving order and dropping duplicates.
+     * A blank list yields {@link #DEFAULT}; an unknown name is rejected.
+     */
+    public static List<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return DEFAULT;
+        }
+        List<String> selected = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!SELECTABLE.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            if (!selected.contains(name)) {
+                selected.add(name);
+            }
+        }
+        return selected.isEmpty() ? DEFAULT : selected;
+    }
+
+    public static Object valueOf(User user, String field) {
+        switch (field) {
+            case "id": return user.getId();
+            case "username": return user.getUsername();
+            case "email": return user.getEmail();
+            case "firstName": return user.getFirstName();
+            case "lastName": return user.getLastName();
+            case "address": return user.getAddress();
+            case "phoneNumber": return user.getPhoneNumber();
+            default: throw new IllegalArgumentException("Unknown field: " + field);
+        }
+    }
+
+    /**
+     * Checks a partial update: only {@link #UPDATABLE} names, at least one of them, and a non-blank email
+     * if email is being changed. A null value for any other field clears it.
+     */
+    public static void validateChanges(Map<String, String> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            if (!UPDATABLE.contains(change.getKey())) {
+                throw new IllegalArgumentException("Field cannot be updated: " + change.getKey());
+            }
+        }
+        if (changes.containsKey("email")) {
+            String email = changes.get("email");
+            if (email == null || email.isBlank() || !email.contains("@")) {
+                throw new IllegalArgumentException("Invalid email");
+            }
+        }
+    }
+}
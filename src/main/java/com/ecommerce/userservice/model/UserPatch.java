@@ -0,0 +1,31 @@
+package com.ecommerce.userservice.model;
+
+import java.util.Map;
+
+/**
+ * One item of a batch update: the user id, the fields to change and, optionally, the version the
+ * client expects the user to still have.
+ */
+public class UserPatch {
+
+    private Long id;
+    private Map<String, String> changes;
+    private Long version;
+
+    public UserPatch() {}
+
+    public UserPatch(Long id, Map<String, String> changes, Long version) {
+        this.id = id;
+        this.changes = changes;
+        this.version = version;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Map<String, String> getChanges() { return changes; }
+    public void setChanges(Map<String, String> changes) { this.changes = changes; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
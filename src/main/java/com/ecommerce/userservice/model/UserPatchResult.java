@@ -0,0 +1,35 @@
+package com.ecommerce.userservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one item of a batch update, in the same position as the item in the request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserPatchResult {
+
+    public enum Status { UPDATED, NOT_FOUND, CONFLICT, INVALID, FAILED }
+
+    private final Long id;
+    private final Status status;
+    private final String message;
+
+    public UserPatchResult(Long id, Status status, String message) {
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    public static UserPatchResult updated(Long id) {
+        return new UserPatchResult(id, Status.UPDATED, null);
+    }
+
+    public Long getId() { return id; }
+    public Status getStatus() { return status; }
+    public String getMessage() { return message; }
+
+    @Override
+    public String toString() {
+        return "UserPatchResult{id=" + id + ", status=" + status + ", message='" + message + "'}";
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.userservice.outbox;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import com.ecommerce.userservice.model.UserChange;
+import com.ecommerce.userservice.repository.UserChangeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Appends every {@link UserChangedEvent} to the outbox table. The listener is synchronous and
+ * requires the publisher's transaction, so a change and its outbox row commit or roll back together.
+ */
+@Component
+public class UserChangeOutbox {
+
+    @Autowired
+    private UserChangeRepository changeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${outbox.retention-hours:24}")
+    private long retentionHours;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUserChanged(UserChangedEvent event) {
+        changeRepository.save(new UserChange(event.getUserId(), event.getType().name(), toJson(event)));
+    }
+
+    /**
+     * Deletes rows older than the retention window. Consumers whose offset falls behind the window
+     * resume from the oldest row still present.
+     */
+    @Scheduled(fixedDelayString = "${outbox.compaction.interval-ms:3600000}",
+               initialDelayString = "${outbox.compaction.interval-ms:3600000}")
+    @Transactional
+    public int compact() {
+        return changeRepository.deleteCreatedBefore(Instant.now().minus(Duration.ofHours(retentionHours)));
+    }
+
+    private String toJson(UserChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event.getChanges());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode outbox payload for user " + event.getUserId(), e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.userservice.outbox;
+
+import com.ecommerce.userservice.model.UserChange;
+import com.ecommerce.userservice.repository.UserChangeRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Numbers committed outbox rows in commit order. Identity ids are taken at insert, so a transaction
+ * that commits late (a large batch chunk, say) can make a lower id visible after higher ones have
+ * been streamed. The sequencer only ever sees committed rows, and runs one pass at a time with the
+ * lock held until its transaction commits, so every number it hands out is greater than any number
+ * a reader could already have seen.
+ *
+ * The lock is per JVM; with several instances sharing one outbox only one of them may sequence.
+ */
+@Component
+public class UserChangeSequencer {
+
+    @Autowired
+    private UserChangeRepository changeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${outbox.sequencer.batch-size:1000}")
+    private int batchSize;
+
+    private TransactionTemplate tx;
+
+    @PostConstruct
+    void init() {
+        tx = new TransactionTemplate(transactionManager);
+        // Never join a caller's transaction: the numbers must be committed before the lock is released
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Assigns the next sequence numbers to committed rows that have none yet, lowest id first.
+     * Returns how many rows were numbered.
+     */
+    public synchronized int sequencePending() {
+        Integer sequenced = tx.execute(status -> {
+            List<UserChange> pending = changeRepository.findBySequenceNumberIsNullOrderByIdAsc(PageRequest.of(0, batchSize));
+            long next = changeRepository.findMaxSequenceNumber();
+            for (UserChange change : pending) {
+                change.setSequenceNumber(++next);
+            }
+            return pending.size();
+        });
+        return sequenced != null ? sequenced : 0;
+    }
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.userservice.outbox;
+
+import com.ecommerce.userservice.model.UserChange;
+import com.ecommerce.userservice.repository.UserChangeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tails the outbox for change-stream subscribers. Each subscription polls from its own offset and
+ * pushes whatever accumulated since the last poll as one batch: a single SSE event carrying a JSON
+ * array (its id is the last offset, so Last-Event-ID resumes correctly), or a run of NDJSON lines.
+ *
+ * Offsets are the sequence numbers {@link UserChangeSequencer} assigns in commit order, not the row
+ * ids: ids are taken at insert and can become visible out of order, which would let a reader move
+ * past a change that commits later.
+ */
+@Component
+public class UserChangeStream {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private UserChangeRepository changeRepository;
+
+    @Autowired
+    private UserChangeSequencer sequencer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${outbox.stream.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    @Value("${outbox.stream.timeout-ms:300000}")
+    private long timeoutMs;
+
+    @Value("${outbox.stream.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${outbox.stream.max-subscribers:100}")
+    private int maxSubscribers;
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "user-change-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Changes with a sequence number greater than {@code after}, in order. Rows committed since the last
+     * pass are numbered first.
+     */
+    public List<UserChange> readBatch(long after, int batchSize) {
+        int size = Math.max(1, Math.min(batchSize, maxBatchSize));
+        sequencer.sequencePending();
+        return changeRepository.findBySequenceNumberGreaterThanOrderBySequenceNumberAsc(after, PageRequest.of(0, size));
+    }
+
+    /**
+     * Opens a stream starting after {@code after}. Returns null if the subscriber limit is reached.
+     */
+    public ResponseBodyEmitter subscribe(long after, int batchSize, boolean sse) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            return null;
+        }
+        ResponseBodyEmitter emitter = sse ? new SseEmitter(timeoutMs) : new ResponseBodyEmitter(timeoutMs);
+        AtomicLong offset = new AtomicLong(after);
+        AtomicReference<ScheduledFuture<?>> poller = new AtomicReference<>();
+        AtomicBoolean closed = new AtomicBoolean();
+        Runnable close = () -> {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.decrementAndGet();
+            }
+            ScheduledFuture<?> task = poller.get();
+            if (task != null) {
+                task.cancel(false);
+            }
+        };
+        emitter.onCompletion(close);
+        emitter.onTimeout(close);
+        emitter.onError(e -> close.run());
+
+        poller.set(scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                pushBatch(emitter, offset, batchSize, sse);
+            } catch (Exception e) {
+                close.run();
+                emitter.completeWithError(e);
+            }
+        }, 0, pollIntervalMs, TimeUnit.MILLISECONDS));
+        if (closed.get()) {
+            poller.get().cancel(false);
+        }
+        return emitter;
+    }
+
+    public String toNdjson(List<UserChange> batch) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (UserChange change : batch) {
+            lines.append(objectMapper.writeValueAsString(change)).append('\n');
+        }
+        return lines.toString();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void pushBatch(ResponseBodyEmitter emitter, AtomicLong offset, int batchSize, boolean sse) throws IOException {
+        List<UserChange> batch = readBatch(offset.get(), batchSize);
+        if (batch.isEmpty()) {
+            return;
+        }
+        long last = batch.get(batch.size() - 1).getSequenceNumber();
+        if (sse) {
+            ((SseEmitter) emitter).send(SseEmitter.event()
+                .id(Long.toString(last))
+                .name("user-changes")
+                .data(batch, MediaType.APPLICATION_JSON));
+        } else {
+            emitter.send(toNdjson(batch), APPLICATION_NDJSON);
+        }
+        offset.set(last);
+    }
+}
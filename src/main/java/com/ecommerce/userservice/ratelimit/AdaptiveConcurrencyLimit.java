@@ -0,0 +1,97 @@
+package com.ecommerce.userservice.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that follows measured latency, after the gradient algorithm of Netflix's
+ * concurrency-limits library.
+ *
+ * A slow moving average of response times stands for the latency of an unloaded service. Each sample
+ * is compared with it: while latency stays within {@code tolerance} times that baseline the limit grows
+ * by about its square root, and once requests queue up and latency rises the limit shrinks in proportion.
+ * The limit only grows when at least half of it is in use, so an idle endpoint does not drift upwards.
+ *
+ * Failed requests are not sampled: fast errors would otherwise look like a healthy service.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_ALPHA = 2.0 / (600 + 1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+    private double baselineNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || maxLimit < minLimit || tolerance < 1) {
+            throw new IllegalArgumentException("Need 1 <= min <= max and tolerance >= 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Takes a slot if fewer than {@link #limit()} requests are in flight. A successful call must be
+     * followed by exactly one {@link #release}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot and, for a successful request, feeds its latency into the limit.
+     *
+     * @param inFlightAtStart requests in flight, including this one, when it was admitted
+     */
+    public void release(long elapsedNanos, int inFlightAtStart, boolean succeeded) {
+        inFlight.decrementAndGet();
+        if (succeeded && elapsedNanos > 0) {
+            update(elapsedNanos, inFlightAtStart);
+        }
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private synchronized void update(long elapsedNanos, int inFlightAtStart) {
+        if (baselineNanos == 0) {
+            baselineNanos = elapsedNanos;
+        } else {
+            baselineNanos += (elapsedNanos - baselineNanos) * BASELINE_ALPHA;
+        }
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineNanos / elapsedNanos));
+        if (gradient == 1.0 && inFlightAtStart < current / 2) {
+            return;
+        }
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
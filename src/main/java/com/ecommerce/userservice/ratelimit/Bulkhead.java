@@ -0,0 +1,102 @@
+package com.ecommerce.userservice.ratelimit;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many requests of one endpoint class run at once. Up to {@code maxQueued} more may wait
+ * for a permit, each for at most {@code maxWaitMillis}; anything beyond that is turned away at once.
+ * A class can therefore never hold more than {@code maxConcurrent + maxQueued} worker threads.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+
+    // Fair, so a queued request is not overtaken by one that just arrived
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder queueFull = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueued, long maxWaitMillis) {
+        if (maxConcurrent < 1 || maxQueued < 0 || maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Bulkhead " + name + " needs maxConcurrent >= 1 and non-negative queue and wait");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Takes a permit, waiting in the queue if there is room. Returns false if the queue is full or
+     * the wait timed out; a true result must be followed by exactly one {@link #release()}.
+     */
+    public boolean tryAcquire() {
+        try {
+            // A zero timeout, unlike tryAcquire(), respects the fairness of the queue
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                queueFull.increment();
+                return false;
+            }
+            try {
+                if (permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                    return true;
+                }
+                timedOut.increment();
+                return false;
+            } finally {
+                queued.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            timedOut.increment();
+            return false;
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+
+    /** Share of the permits in use, from 0 to 1. */
+    public double saturation() {
+        return (double) active() / maxConcurrent;
+    }
+
+    /** Requests turned away because the queue was full. */
+    public long rejectedQueueFull() {
+        return queueFull.sum();
+    }
+
+    /** Requests that waited in the queue for {@code maxWaitMillis} without getting a permit. */
+    public long rejectedTimeout() {
+        return timedOut.sum();
+    }
+}
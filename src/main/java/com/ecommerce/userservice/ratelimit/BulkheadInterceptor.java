@@ -0,0 +1,154 @@
+package com.ecommerce.userservice.ratelimit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sends each controller method through the {@link Bulkhead} of its endpoint class, so that a flood
+ * of one class (say, logins) cannot occupy every worker thread. Endpoints are named
+ * {@code Controller.method}, like the concurrency limits. {@link #verify} makes sure every guarded
+ * handler has a class; anything else passes straight through. A request the bulkhead turns away gets
+ * 503 with {@code Retry-After}.
+ *
+ * Exposes {@code http.bulkhead.active}, {@code http.bulkhead.queued}, {@code http.bulkhead.saturation}
+ * and {@code http.bulkhead.rejected} (by reason: {@code queue_full} or {@code timeout}), tagged with
+ * the bulkhead name.
+ */
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ENTERED = BulkheadInterceptor.class.getName() + ".entered";
+
+    private final Map<String, Bulkhead> bulkheadsByEndpoint = new HashMap<>();
+    private final List<Bulkhead> bulkheads = new ArrayList<>();
+    private final MeterRegistry meterRegistry;
+
+    public BulkheadInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Routes the given controller methods, named {@code Controller.method}, through {@code bulkhead}. Meant to be called
+     * while configuring, before the interceptor sees requests.
+     */
+    public BulkheadInterceptor add(Bulkhead bulkhead, Collection<String> endpoints) {
+        for (String endpoint : endpoints) {
+            if (endpoint.isBlank()) {
+                continue;
+            }
+            Bulkhead previous = bulkheadsByEndpoint.put(endpoint.trim(), bulkhead);
+            if (previous != null) {
+                throw new IllegalArgumentException("Endpoint " + endpoint + " is assigned to bulkheads "
+                    + previous.name() + " and " + bulkhead.name());
+            }
+        }
+        bulkheads.add(bulkhead);
+        if (meterRegistry != null) {
+            bindTo(bulkhead, meterRegistry);
+        }
+        return this;
+    }
+
+    /**
+     * Checks the assignment against the handlers this interceptor guards: every assigned name must
+     * match one of {@code handlerMethods} and every one of them must be assigned, so that a typo, a
+     * renamed method or a new endpoint cannot silently run outside the bulkheads.
+     */
+    public void verify(Collection<HandlerMethod> handlerMethods) {
+        Set<String> known = new HashSet<>();
+        for (HandlerMethod method : handlerMethods) {
+            known.add(EndpointNames.of(method));
+        }
+        List<String> unknown = bulkheadsByEndpoint.keySet().stream()
+            .filter(endpoint -> !known.contains(endpoint))
+            .sorted()
+            .toList();
+        if (!unknown.isEmpty()) {
+            throw new IllegalStateException("Bulkhead endpoints match no controller method: " + unknown);
+        }
+        List<String> unassigned = known.stream()
+            .filter(endpoint -> !bulkheadsByEndpoint.containsKey(endpoint))
+            .sorted()
+            .toList();
+        if (!unassigned.isEmpty()) {
+            throw new IllegalStateException("Controller methods without a bulkhead: " + unassigned);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        Bulkhead bulkhead = bulkheadsByEndpoint.get(EndpointNames.of(method));
+        if (bulkhead == null) {
+            return true;
+        }
+        if (!bulkhead.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return false;
+        }
+        request.setAttribute(ENTERED, bulkhead);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    public List<Bulkhead> bulkheads() {
+        return List.copyOf(bulkheads);
+    }
+
+    private static void release(HttpServletRequest request) {
+        Bulkhead bulkhead = (Bulkhead) request.getAttribute(ENTERED);
+        if (bulkhead != null) {
+            request.removeAttribute(ENTERED);
+            bulkhead.release();
+        }
+    }
+
+    private static void bindTo(Bulkhead bulkhead, MeterRegistry registry) {
+        Gauge.builder("http.bulkhead.active", bulkhead, Bulkhead::active)
+            .description("Requests holding a permit")
+            .tag("bulkhead", bulkhead.name())
+            .register(registry);
+        Gauge.builder("http.bulkhead.queued", bulkhead, Bulkhead::queued)
+            .description("Requests waiting for a permit")
+            .tag("bulkhead", bulkhead.name())
+            .register(registry);
+        Gauge.builder("http.bulkhead.saturation", bulkhead, Bulkhead::saturation)
+            .description("Share of the permits in use")
+            .tag("bulkhead", bulkhead.name())
+            .register(registry);
+        FunctionCounter.builder("http.bulkhead.rejected", bulkhead, Bulkhead::rejectedQueueFull)
+            .description("Requests turned away with 503")
+            .tags("bulkhead", bulkhead.name(), "reason", "queue_full")
+            .register(registry);
+        FunctionCounter.builder("http.bulkhead.rejected", bulkhead, Bulkhead::rejectedTimeout)
+            .description("Requests turned away with 503")
+            .tags("bulkhead", bulkhead.name(), "reason", "timeout")
+            .register(registry);
+    }
+}
@@ -0,0 +1,117 @@
+package com.ecommerce.userservice.ratelimit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Puts an {@link AdaptiveConcurrencyLimit} in front of every controller method. A request over its
+ * endpoint's limit is answered with 503 and {@code Retry-After} at once, before the controller runs,
+ * instead of waiting in the container's queue.
+ *
+ * Exposes {@code http.concurrency.limit}, {@code http.concurrency.in_flight} and
+ * {@code http.concurrency.rejected}, tagged with the endpoint as {@code Controller.method}, so
+ * same-named methods on different controllers get separate limits.
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMITTED = ConcurrencyLimitInterceptor.class.getName() + ".admitted";
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitInterceptor(int initialLimit, int minLimit, int maxLimit, double tolerance, MeterRegistry meterRegistry) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        AdaptiveConcurrencyLimit limit = limitFor(EndpointNames.of(method));
+        if (!limit.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return false;
+        }
+        request.setAttribute(ADMITTED, new Admission(limit, System.nanoTime(), limit.inFlight()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Admission admission = (Admission) request.getAttribute(ADMITTED);
+        if (admission != null) {
+            request.removeAttribute(ADMITTED);
+            boolean succeeded = ex == null && response.getStatus() < 500;
+            admission.limit.release(System.nanoTime() - admission.startedNanos, admission.inFlightAtStart, succeeded);
+        }
+    }
+
+    // Streaming responses outlive the handler; free the slot without a latency sample
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Admission admission = (Admission) request.getAttribute(ADMITTED);
+        if (admission != null) {
+            request.removeAttribute(ADMITTED);
+            admission.limit.release(0, admission.inFlightAtStart, false);
+        }
+    }
+
+    public Map<String, AdaptiveConcurrencyLimit> limits() {
+        return Map.copyOf(limits);
+    }
+
+    private AdaptiveConcurrencyLimit limitFor(String endpoint) {
+        AdaptiveConcurrencyLimit limit = limits.get(endpoint);
+        if (limit != null) {
+            return limit;
+        }
+        return limits.computeIfAbsent(endpoint, name -> {
+            AdaptiveConcurrencyLimit created = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance);
+            if (meterRegistry != null) {
+                Gauge.builder("http.concurrency.limit", created, AdaptiveConcurrencyLimit::limit)
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+                Gauge.builder("http.concurrency.in_flight", created, AdaptiveConcurrencyLimit::inFlight)
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+                FunctionCounter.builder("http.concurrency.rejected", created, AdaptiveConcurrencyLimit::rejected)
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+            }
+            return created;
+        });
+    }
+
+    private static final class Admission {
+        private final AdaptiveConcurrencyLimit limit;
+        private final long startedNanos;
+        private final int inFlightAtStart;
+
+        Admission(AdaptiveConcurrencyLimit limit, long startedNanos, int inFlightAtStart) {
+            this.limit = limit;
+            this.startedNanos = startedNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+    }
+}
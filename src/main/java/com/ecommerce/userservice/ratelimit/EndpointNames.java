@@ -0,0 +1,17 @@
+package com.ecommerce.userservice.ratelimit;
+
+import org.springframework.web.method.HandlerMethod;
+
+/**
+ * Names a controller method as {@code Controller.method}, the key both admission interceptors and
+ * their metrics use. The bare method name alone is not unique across controllers.
+ */
+final class EndpointNames {
+
+    private EndpointNames() {
+    }
+
+    static String of(HandlerMethod method) {
+        return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+    }
+}
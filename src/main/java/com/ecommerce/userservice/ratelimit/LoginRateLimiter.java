@@ -0,0 +1,51 @@
+package com.ecommerce.userservice.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission check for login attempts, evaluated before any password hashing or DB access.
+ * An attempt must get a token from both the client IP bucket and the username bucket.
+ *
+ * The client IP is {@code request.getRemoteAddr()}. Behind a reverse proxy that is the proxy's
+ * address unless {@code server.forward-headers-strategy} lets X-Forwarded-For from trusted proxies
+ * replace it; otherwise every client shares one IP bucket.
+ */
+@Component
+public class LoginRateLimiter {
+
+    @Value("${ratelimit.login.per-username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${ratelimit.login.per-username.refill-per-minute:10}")
+    private double usernameRefillPerMinute;
+
+    @Value("${ratelimit.login.per-ip.capacity:30}")
+    private int ipCapacity;
+
+    @Value("${ratelimit.login.per-ip.refill-per-minute:120}")
+    private double ipRefillPerMinute;
+
+    @Value("${ratelimit.login.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${ratelimit.login.idle-eviction-ms:600000}")
+    private long idleEvictionMs;
+
+    private TokenBucketRateLimiter usernameLimiter;
+    private TokenBucketRateLimiter ipLimiter;
+
+    @PostConstruct
+    void init() {
+        usernameLimiter = new TokenBucketRateLimiter(usernameCapacity, usernameRefillPerMinute / 60.0, maxKeys, idleEvictionMs);
+        ipLimiter = new TokenBucketRateLimiter(ipCapacity, ipRefillPerMinute / 60.0, maxKeys, idleEvictionMs);
+    }
+
+    public boolean tryAcquire(String username, String clientIp) {
+        if (!ipLimiter.tryAcquire(clientIp != null ? clientIp : "")) {
+            return false;
+        }
+        return usernameLimiter.tryAcquire(username != null ? username : "");
+    }
+}
@@ -0,0 +1,133 @@
+package com.ecommerce.userservice.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyed token buckets held in a fixed number of independent stripes.
+ *
+ * Each bucket is a single {@link AtomicLong} holding its "theoretical arrival time" (GCRA),
+ * so acquiring a token is one CAS and never takes a lock. A bucket whose arrival time is in
+ * the past is full, which means it carries no state and can be evicted without changing any
+ * decision. When a stripe is full of busy buckets, a new key takes the place of the sampled bucket
+ * with the most tokens left, so memory stays bounded under key-spraying while every key keeps a
+ * bucket of its own. Drained buckets, the ones worth remembering, are the last to go.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final int STRIPES = 16;
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final int maxKeysPerStripe;
+    private final long idleNanos;
+    private final LongSupplier clock;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public TokenBucketRateLimiter(int capacity, double tokensPerSecond, int maxKeys, long idleMillis) {
+        this(capacity, tokensPerSecond, maxKeys, idleMillis, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int capacity, double tokensPerSecond, int maxKeys, long idleMillis, LongSupplier clock) {
+        if (capacity < 1 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.nanosPerToken = (long) (1_000_000_000L / tokensPerSecond);
+        this.burstNanos = nanosPerToken * capacity;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        this.idleNanos = idleMillis * 1_000_000L;
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public boolean tryAcquire(String key) {
+        long now = clock.getAsLong();
+        Stripe stripe = stripes[spread(key.hashCode()) & (STRIPES - 1)];
+        AtomicLong bucket = stripe.buckets.get(key);
+        if (bucket == null) {
+            bucket = stripe.bucketFor(key, now);
+        }
+        return tryConsume(bucket, now);
+    }
+
+    public int trackedKeys() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.buckets.size();
+        }
+        return total;
+    }
+
+    private boolean tryConsume(AtomicLong bucket, long now) {
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + nanosPerToken;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private final class Stripe {
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong lastSweep = new AtomicLong();
+
+        AtomicLong bucketFor(String key, long now) {
+            if (buckets.size() >= maxKeysPerStripe) {
+                evictIdle(now);
+                if (buckets.size() >= maxKeysPerStripe) {
+                    evictFullest();
+                }
+            }
+            return buckets.computeIfAbsent(key, k -> new AtomicLong(now - burstNanos));
+        }
+
+        // Looks at a few buckets rather than the whole stripe so a flood of new keys stays O(1) each
+        private void evictFullest() {
+            String victim = null;
+            long earliest = Long.MAX_VALUE;
+            int sampled = 0;
+            for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+                long arrival = entry.getValue().get();
+                if (arrival < earliest) {
+                    earliest = arrival;
+                    victim = entry.getKey();
+                }
+                if (++sampled == EVICTION_SAMPLE) {
+                    break;
+                }
+            }
+            if (victim != null) {
+                buckets.remove(victim);
+            }
+        }
+
+        private void evictIdle(long now) {
+            long previous = lastSweep.get();
+            // Sweeping is O(stripe size); don't let a flood of new keys trigger it on every call
+            if (previous != 0 && now - previous < idleNanos / 4 || !lastSweep.compareAndSet(previous, now)) {
+                return;
+            }
+            Iterator<Map.Entry<String, AtomicLong>> it = buckets.entrySet().iterator();
+            while (it.hasNext()) {
+                if (now - it.next().getValue().get() >= idleNanos) {
+                    it.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.model.UserChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface UserChangeRepository extends JpaRepository<UserChange, Long> {
+    List<UserChange> findBySequenceNumberGreaterThanOrderBySequenceNumberAsc(Long after, Pageable pageable);
+
+    List<UserChange> findBySequenceNumberIsNullOrderByIdAsc(Pageable pageable);
+
+    @Query("select coalesce(max(c.sequenceNumber), 0) from UserChange c")
+    long findMaxSequenceNumber();
+
+    // The highest numbered row always survives so that numbering continues above every issued offset
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from UserChange c where c.createdAt < :cutoff and (c.sequenceNumber is null"
+        + " or c.sequenceNumber < (select coalesce(max(d.sequenceNumber), 0) from UserChange d))")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
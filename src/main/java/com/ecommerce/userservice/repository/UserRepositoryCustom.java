@@ -0,0 +1,17 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserPatch;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    Optional<User> findByUsername(String username);
+    List<User> findAllByIdCached(List<Long> ids);
+    Optional<Map<String, Object>> findFieldsById(Long id, List<String> fields);
+    List<Map<String, Object>> findAllFields(List<String> fields);
+    int updateFieldsById(Long id, Map<String, String> changes);
+    int[] updateFieldsInBatch(List<UserPatch> patches);
+}
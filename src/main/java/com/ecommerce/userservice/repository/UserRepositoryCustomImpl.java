@@ -0,0 +1,227 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserPatch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.Session;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final Map<String, String> COLUMNS = Map.of(
+        "email", "email",
+        "firstName", "first_name",
+        "lastName", "last_name",
+        "address", "address",
+        "phoneNumber", "phone_number");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserRepositoryCustomImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Resolves through the natural-id cache and then the entity cache, so a warm login lookup
+     * issues no SQL. A derived query would always go to JDBC.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+            .bySimpleNaturalId(User.class)
+            .loadOptional(username);
+    }
+
+    /**
+     * Loads many users at once, taking what it can from the second-level cache and fetching
+     * only the rest with a single {@code IN} query; {@code findAllById} would always query.
+     * Unknown ids are left out.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllByIdCached(List<Long> ids) {
+        return entityManager.unwrap(Session.class)
+            .byMultipleIds(User.class)
+            .withBatchSize(ids.size())
+            .multiLoad(ids)
+            .stream()
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    /**
+     * Selects only the requested columns; callers must pass names from {@code UserFields}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> findFieldsById(Long id, List<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> root = query.from(User.class);
+        query.multiselect(selections(root, fields)).where(cb.equal(root.get("id"), id));
+        return entityManager.createQuery(query).getResultList().stream()
+            .findFirst()
+            .map(tuple -> toMap(tuple, fields));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findAllFields(List<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> root = query.from(User.class);
+        query.multiselect(selections(root, fields)).orderBy(cb.asc(root.get("id")));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            rows.add(toMap(tuple, fields));
+        }
+        return rows;
+    }
+
+    private static List<Selection<?>> selections(Root<User> root, List<String> fields) {
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(root.get(field).alias(field));
+        }
+        return selections;
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, tuple.get(field));
+        }
+        return row;
+    }
+
+    /**
+     * Issues one {@code UPDATE} touching only the given columns, without loading the row first.
+     * Plain JDBC is used instead of a JPQL bulk update because Hibernate invalidates the whole
+     * entity cache region after a bulk update; here only this user's cache entry is evicted.
+     * Callers must pass names from {@code UserFields.UPDATABLE}.
+     */
+    @Override
+    @Transactional
+    public int updateFieldsById(Long id, Map<String, String> changes) {
+        List<String> fields = new ArrayList<>(changes.keySet());
+        Object[] args = new Object[fields.size() + 1];
+        for (int i = 0; i < fields.size(); i++) {
+            args[i] = changes.get(fields.get(i));
+        }
+        args[fields.size()] = id;
+
+        int updated = jdbcTemplate.update(updateSql(fields, false), args);
+        if (updated > 0) {
+            evictAfterCompletion(id);
+        }
+        return updated;
+    }
+
+    /**
+     * Applies many partial updates with JDBC statement batching. Patches that change the same set of
+     * columns, with or without a version guard, share one prepared statement and go to the database
+     * as one batch. Returns the affected row count of each patch, in input order.
+     * Callers must pass names from {@code UserFields.UPDATABLE}.
+     */
+    @Override
+    @Transactional
+    public int[] updateFieldsInBatch(List<UserPatch> patches) {
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        Map<String, List<String>> groupFields = new LinkedHashMap<>();
+        for (int i = 0; i < patches.size(); i++) {
+            UserPatch patch = patches.get(i);
+            List<String> fields = new ArrayList<>(new TreeSet<>(patch.getChanges().keySet()));
+            String sql = updateSql(fields, patch.getVersion() != null);
+            groups.computeIfAbsent(sql, key -> new ArrayList<>()).add(i);
+            groupFields.putIfAbsent(sql, fields);
+        }
+
+        int[] counts = new int[patches.size()];
+        for (Map.Entry<String, List<Integer>> group : groups.entrySet()) {
+            List<String> fields = groupFields.get(group.getKey());
+            List<Object[]> batchArgs = new ArrayList<>(group.getValue().size());
+            for (int index : group.getValue()) {
+                UserPatch patch = patches.get(index);
+                Object[] args = new Object[fields.size() + (patch.getVersion() != null ? 2 : 1)];
+                for (int f = 0; f < fields.size(); f++) {
+                    args[f] = patch.getChanges().get(fields.get(f));
+                }
+                args[fields.size()] = patch.getId();
+                if (patch.getVersion() != null) {
+                    args[fields.size() + 1] = patch.getVersion();
+                }
+                batchArgs.add(args);
+            }
+
+            int[] groupCounts = jdbcTemplate.batchUpdate(group.getKey(), batchArgs);
+            for (int i = 0; i < groupCounts.length; i++) {
+                // A driver that cannot report per-statement counts returns SUCCESS_NO_INFO
+                counts[group.getValue().get(i)] = groupCounts[i] == Statement.SUCCESS_NO_INFO ? 1 : groupCounts[i];
+            }
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                evictAfterCompletion(patches.get(i).getId());
+            }
+        }
+        return counts;
+    }
+
+    private static String updateSql(List<String> fields, boolean versioned) {
+        StringBuilder sql = new StringBuilder("UPDATE users SET ");
+        for (int i = 0; i < fields.size(); i++) {
+            String column = COLUMNS.get(fields.get(i));
+            if (column == null) {
+                throw new IllegalArgumentException("Field cannot be updated: " + fields.get(i));
+            }
+            sql.append(i == 0 ? "" : ", ").append(column).append(" = ?");
+        }
+        sql.append(", version = version + 1 WHERE id = ?");
+        if (versioned) {
+            sql.append(" AND version = ?");
+        }
+        return sql.toString();
+    }
+
+    private void evictAfterCompletion(Long id) {
+        jakarta.persistence.Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(User.class, id);
+        // Evict again once the new row is visible, in case a concurrent reader re-cached the old one
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(User.class, id);
+                }
+            });
+        }
+    }
+}
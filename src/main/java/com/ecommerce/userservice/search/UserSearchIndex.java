@@ -0,0 +1,309 @@
+package com.ecommerce.userservice.search;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import com.ecommerce.userservice.event.UsersBulkLoadedEvent;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.sharding.ShardedUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Prefix index over username, email, first and last name for type-ahead search.
+ *
+ * The bulk of the terms live in an immutable segment of two parallel sorted arrays, so a lookup is
+ * a binary search followed by a short forward scan. Terms added after the segment was built go to
+ * a skip list that is merged into the scan. Nothing is ever removed in place: every hit is checked
+ * against the user's current summary, so a term a user no longer has is simply skipped. Once the
+ * skip list grows past {@code user.search.rebuild-threshold} the segment is rebuilt in the background.
+ */
+@Component
+public class UserSearchIndex {
+
+    static final List<String> FIELDS = List.of("id", "username", "email", "firstName", "lastName");
+
+    // Separates the term from the user id in skip list keys; stripped from queries
+    private static final char SEPARATOR = '\u0000';
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Present only with sharding.enabled=true
+    @Autowired(required = false)
+    private ShardedUserRepository shardedUsers;
+
+    @Value("${user.search.max-results:20}")
+    private int maxResults;
+
+    @Value("${user.search.rebuild-threshold:10000}")
+    private int rebuildThreshold;
+
+    private final ConcurrentHashMap<Long, Summary> summaries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Long> delta = new ConcurrentSkipListMap<>();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Segment segment = Segment.EMPTY;
+
+    @EventListener({ApplicationReadyEvent.class, UsersBulkLoadedEvent.class})
+    public void load() {
+        List<Map<String, Object>> rows = shardedUsers != null ? shardedUsers.findAllFields(FIELDS) : userRepository.findAllFields(FIELDS);
+        for (Map<String, Object> row : rows) {
+            Summary summary = Summary.of(row);
+            // A change that committed while we were reading is newer than the row
+            summaries.putIfAbsent(summary.id, summary);
+        }
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Map<String, Object> changes = new LinkedHashMap<>(event.getChanges());
+        if (event.getUsername() != null) {
+            changes.putIfAbsent("username", event.getUsername());
+        }
+        index(event.getUserId(), changes);
+    }
+
+    /**
+     * Merges {@code changes} into the summary of user {@code id} and indexes any new terms.
+     */
+    public void index(Long id, Map<String, Object> changes) {
+        Summary[] previous = new Summary[1];
+        Summary updated = summaries.compute(id, (key, existing) -> {
+            previous[0] = existing;
+            return (existing != null ? existing : Summary.EMPTY).with(id, changes);
+        });
+        for (String term : updated.terms) {
+            if (term != null && (previous[0] == null || !previous[0].hasTerm(term))) {
+                delta.put(key(term, id), id);
+            }
+        }
+        if (delta.size() > rebuildThreshold && rebuilding.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    rebuild();
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} users with a username, email, first or last name starting with
+     * {@code prefix}, case-insensitively, ordered by the matching term.
+     */
+    public List<Map<String, Object>> search(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        int max = Math.min(Math.max(limit, 1), maxResults);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        Segment current = segment;
+        int i = current.lowerBound(normalized);
+        Iterator<Map.Entry<String, Long>> added = delta.tailMap(normalized).entrySet().iterator();
+        Map.Entry<String, Long> next = added.hasNext() ? added.next() : null;
+
+        Set<Long> seen = new LinkedHashSet<>();
+        List<Map<String, Object>> results = new ArrayList<>(max);
+        while (results.size() < max) {
+            String baseTerm = i < current.terms.length && current.terms[i].startsWith(normalized) ? current.terms[i] : null;
+            String addedTerm = next != null && next.getKey().startsWith(normalized) ? termOf(next.getKey()) : null;
+            if (baseTerm == null && addedTerm == null) {
+                break;
+            }
+
+            String term;
+            long id;
+            if (addedTerm == null || (baseTerm != null && baseTerm.compareTo(addedTerm) <= 0)) {
+                term = baseTerm;
+                id = current.ids[i++];
+            } else {
+                term = addedTerm;
+                id = next.getValue();
+                next = added.hasNext() ? added.next() : null;
+            }
+
+            Summary summary = summaries.get(id);
+            if (summary != null && summary.hasTerm(term) && seen.add(id)) {
+                results.add(summary.toMap());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Rebuilds the sorted segment from the current summaries and drops the skip list entries it now covers.
+     */
+    public synchronized void rebuild() {
+        List<String> pending = new ArrayList<>(delta.keySet());
+
+        List<Posting> postings = new ArrayList<>(summaries.size() * 4);
+        for (Summary summary : summaries.values()) {
+            for (String term : summary.terms) {
+                if (term != null) {
+                    postings.add(new Posting(term, summary.id));
+                }
+            }
+        }
+        Posting[] sorted = postings.toArray(new Posting[0]);
+        Arrays.parallelSort(sorted, Posting.ORDER);
+        Segment rebuilt = new Segment(sorted);
+        segment = rebuilt;
+
+        for (String key : pending) {
+            if (rebuilt.contains(termOf(key), delta.getOrDefault(key, -1L))) {
+                delta.remove(key);
+            }
+        }
+    }
+
+    public int size() {
+        return summaries.size();
+    }
+
+    int pendingTerms() {
+        return delta.size();
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().replace(String.valueOf(SEPARATOR), "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(String term, long id) {
+        return term + SEPARATOR + id;
+    }
+
+    private static String termOf(String key) {
+        return key.substring(0, key.lastIndexOf(SEPARATOR));
+    }
+
+    private static final class Posting {
+        static final Comparator<Posting> ORDER = Comparator.<Posting, String>comparing(p -> p.term).thenComparingLong(p -> p.id);
+
+        final String term;
+        final long id;
+
+        Posting(String term, long id) {
+            this.term = term;
+            this.id = id;
+        }
+    }
+
+    private static final class Segment {
+        static final Segment EMPTY = new Segment(new Posting[0]);
+
+        final String[] terms;
+        final long[] ids;
+
+        Segment(Posting[] sorted) {
+            terms = new String[sorted.length];
+            ids = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                terms[i] = sorted[i].term;
+                ids[i] = sorted[i].id;
+            }
+        }
+
+        // First position whose term is >= prefix
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = terms.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (terms[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        boolean contains(String term, long id) {
+            for (int i = lowerBound(term); i < terms.length && terms[i].equals(term); i++) {
+                if (ids[i] == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Summary {
+        static final Summary EMPTY = new Summary(null, null, null, null, null);
+
+        final Long id;
+        final String username;
+        final String email;
+        final String firstName;
+        final String lastName;
+        final String[] terms;
+
+        Summary(Long id, String username, String email, String firstName, String lastName) {
+            this.id = id;
+            this.username = username;
+            this.email = email;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.terms = new String[] { term(username), term(email), term(firstName), term(lastName) };
+        }
+
+        static Summary of(Map<String, Object> row) {
+            return EMPTY.with((Long) row.get("id"), row);
+        }
+
+        Summary with(Long id, Map<String, ?> changes) {
+            return new Summary(id,
+                changes.containsKey("username") ? (String) changes.get("username") : username,
+                changes.containsKey("email") ? (String) changes.get("email") : email,
+                changes.containsKey("firstName") ? (String) changes.get("firstName") : firstName,
+                changes.containsKey("lastName") ? (String) changes.get("lastName") : lastName);
+        }
+
+        boolean hasTerm(String term) {
+            for (String own : terms) {
+                if (term.equals(own)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", id);
+            map.put("username", username);
+            map.put("email", email);
+            map.put("firstName", firstName);
+            map.put("lastName", lastName);
+            return map;
+        }
+
+        private static String term(String value) {
+            String normalized = normalize(value);
+            return normalized.isEmpty() ? null : normalized;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import com.ecommerce.userservice.model.UserFields;
+import com.ecommerce.userservice.model.UserPatch;
+import com.ecommerce.userservice.model.UserPatchResult;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.sharding.ShardedUserRepository;
+import com.ecommerce.userservice.telemetry.TelemetryClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies many partial profile updates in one request. Valid items are split into chunks of
+ * {@code user.batch-update.chunk-size}; each chunk is one transaction whose UPDATEs are sent as JDBC
+ * batches. A failing chunk is rolled back and reported as FAILED without affecting the other chunks.
+ *
+ * With sharding the UPDATEs go to the shards, one batch per shard; each shard commits on its own, so a
+ * chunk that fails part-way is still reported FAILED but may have been applied on some shards.
+ */
+@Service
+public class UserBatchUpdateService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Present only with sharding.enabled=true
+    @Autowired(required = false)
+    private ShardedUserRepository shardedUsers;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TelemetryClient telemetryClient;
+
+    @Value("${user.batch-update.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${user.batch-update.max-items:10000}")
+    private int maxItems;
+
+    /**
+     * Returns one result per patch, in request order. An item with a missing id, a change that
+     * {@link UserFields#validateChanges} rejects, or an id already seen earlier in the batch is INVALID
+     * and never reaches the database. Items with a version are only applied if it still matches.
+     */
+    public List<UserPatchResult> updateAll(List<UserPatch> patches) {
+        if (patches == null || patches.isEmpty()) {
+            throw new IllegalArgumentException("No updates in batch");
+        }
+        if (patches.size() > maxItems) {
+            throw new IllegalArgumentException("Batch exceeds " + maxItems + " updates");
+        }
+        long started = System.nanoTime();
+
+        UserPatchResult[] results = new UserPatchResult[patches.size()];
+        List<Integer> valid = new ArrayList<>(patches.size());
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < patches.size(); i++) {
+            UserPatch patch = patches.get(i);
+            Long id = patch == null ? null : patch.getId();
+            if (id == null) {
+                results[i] = new UserPatchResult(null, UserPatchResult.Status.INVALID, "Missing id");
+                continue;
+            }
+            try {
+                UserFields.validateChanges(patch.getChanges());
+            } catch (IllegalArgumentException e) {
+                results[i] = new UserPatchResult(id, UserPatchResult.Status.INVALID, e.getMessage());
+                continue;
+            }
+            if (!seen.add(id)) {
+                results[i] = new UserPatchResult(id, UserPatchResult.Status.INVALID, "Duplicate id in batch");
+                continue;
+            }
+            valid.add(i);
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+            try {
+                transaction.executeWithoutResult(status -> applyChunk(patches, chunk, results));
+            } catch (RuntimeException e) {
+                for (int index : chunk) {
+                    results[index] = new UserPatchResult(patches.get(index).getId(), UserPatchResult.Status.FAILED, e.getMessage());
+                }
+            }
+        }
+
+        Map<UserPatchResult.Status, Integer> counts = new EnumMap<>(UserPatchResult.Status.class);
+        for (UserPatchResult result : results) {
+            counts.merge(result.getStatus(), 1, Integer::sum);
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        String level = counts.containsKey(UserPatchResult.Status.FAILED) ? "ERROR" : "INFO";
+        telemetryClient.log(level, "Batch update of {} users in {} ms: {}", patches.size(), elapsedMs, counts);
+        return List.of(results);
+    }
+
+    // Runs inside the chunk transaction, so the change events reach the outbox in the same commit
+    private void applyChunk(List<UserPatch> patches, List<Integer> chunk, UserPatchResult[] results) {
+        List<UserPatch> items = new ArrayList<>(chunk.size());
+        for (int index : chunk) {
+            items.add(patches.get(index));
+        }
+        int[] updated = shardedUsers != null ? shardedUsers.updateFieldsInBatch(items) : userRepository.updateFieldsInBatch(items);
+
+        List<Long> missed = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missed.add(items.get(i).getId());
+            }
+        }
+        // A row that was not updated either does not exist or no longer has the expected version
+        Set<Long> existing = missed.isEmpty() ? Set.of()
+            : new HashSet<>(shardedUsers != null ? shardedUsers.findExistingIds(missed) : userRepository.findExistingIds(missed));
+
+        for (int i = 0; i < updated.length; i++) {
+            UserPatch patch = items.get(i);
+            int index = chunk.get(i);
+            if (updated[i] > 0) {
+                results[index] = UserPatchResult.updated(patch.getId());
+                eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.UPDATED, patch.getId(), null,
+                    new LinkedHashMap<>(patch.getChanges())));
+            } else if (existing.contains(patch.getId())) {
+                results[index] = new UserPatchResult(patch.getId(), UserPatchResult.Status.CONFLICT,
+                    "Version " + patch.getVersion() + " is no longer current");
+            } else {
+                results[index] = new UserPatchResult(patch.getId(), UserPatchResult.Status.NOT_FOUND, "User not found");
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserFields;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.sharding.ShardedUserRepository;
+import com.ecommerce.userservice.telemetry.TelemetryClient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes the user directory as CSV while it is read, so memory use does not depend on the number
+ * of users. Columns are {@link UserFields#SELECTABLE}; the password hash is never written.
+ * With sharding the users are read in keyset pages merged across the shards.
+ */
+@Service
+public class UserExportService {
+
+    private static final int SHARD_PAGE_SIZE = 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TelemetryClient telemetryClient;
+
+    // Present only with sharding.enabled=true
+    @Autowired(required = false)
+    private ShardedUserRepository shardedUsers;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Writes a header and one RFC 4180 line per user to {@code writer} and returns the number of users written.
+     * The caller owns the writer; it is flushed but not closed.
+     */
+    @Transactional(readOnly = true)
+    public long exportCsv(Writer writer) throws IOException {
+        telemetryClient.log("INFO", "Exporting all users as CSV");
+        long started = System.nanoTime();
+        long rows = 0;
+
+        writeLine(writer, UserFields.SELECTABLE);
+        if (shardedUsers != null) {
+            rows = exportShards(writer);
+        } else {
+            try (Stream<User> users = userRepository.streamAllOrderedById()) {
+                Iterator<User> iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    User user = iterator.next();
+                    writeUser(writer, user);
+                    // Keep the persistence context from holding every exported user
+                    entityManager.detach(user);
+                    rows++;
+                }
+            }
+        }
+        writer.flush();
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        telemetryClient.log("INFO", "Exported {} users in {} ms ({} rows/s)", rows, elapsedMs, rows * 1000 / elapsedMs);
+        return rows;
+    }
+
+    private long exportShards(Writer writer) throws IOException {
+        long rows = 0;
+        List<User> page = shardedUsers.findAllAfter(0, SHARD_PAGE_SIZE);
+        while (!page.isEmpty()) {
+            for (User user : page) {
+                writeUser(writer, user);
+            }
+            rows += page.size();
+            page = shardedUsers.findAllAfter(page.get(page.size() - 1).getId(), SHARD_PAGE_SIZE);
+        }
+        return rows;
+    }
+
+    private static void writeUser(Writer writer, User user) throws IOException {
+        for (int i = 0; i < UserFields.SELECTABLE.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = UserFields.valueOf(user, UserFields.SELECTABLE.get(i));
+            if (value != null) {
+                writeField(writer, value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeLine(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(writer, values.get(i));
+        }
+        writer.write("\r\n");
+    }
+
+    // Quotes a field only if it contains a separator, quote or line break, doubling embedded quotes
+    private static void writeField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
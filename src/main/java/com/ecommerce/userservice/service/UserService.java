@@ -1,23 +1,40 @@
 package com.ecommerce.userservice.service;
 
+import com.ecommerce.userservice.auth.Credential;
+import com.ecommerce.userservice.auth.CredentialCache;
+import com.ecommerce.userservice.auth.CredentialIndex;
+import com.ecommerce.userservice.coalescing.BatchingUserLoader;
+import com.ecommerce.userservice.coalescing.SingleFlight;
+import com.ecommerce.userservice.datasource.ReadYourWritesTracker;
+import com.ecommerce.userservice.event.UserChangedEvent;
 import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserFields;
 import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.sharding.ShardedUserRepository;
 import com.ecommerce.userservice.telemetry.TelemetryClient;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.crypto.SecretKey;
 import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
-public class UserService {
+public class UserService implements MeterBinder {
     
     @Autowired
     private UserRepository userRepository;
@@ -28,88 +45,263 @@ public class UserService {
     @Autowired
     private TelemetryClient telemetryClient;
     
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // Present only with user.batching.enabled=true
+    @Autowired(required = false)
+    private BatchingUserLoader batchingUserLoader;
+    
+    // Present only with auth.credential-cache.enabled=true
+    @Autowired(required = false)
+    private CredentialCache credentialCache;
+    
+    // Present only with auth.credential-index.enabled=true
+    @Autowired(required = false)
+    private CredentialIndex credentialIndex;
+    
+    // Present only with sharding.enabled=true; then users live on the shards, not in the JPA table.
+    // Shard statements commit on their own, outside the transaction that writes the outbox.
+    @Autowired(required = false)
+    private ShardedUserRepository shardedUsers;
+    
     @Value("${jwt.secret:defaultSecretKeyThatIsAtLeast256BitsLongForHS256Algorithm}")
     private String jwtSecret;
     
     @Value("${jwt.expiration:86400000}")
     private int jwtExpirationMs;
     
+    // Concurrent misses for the same user share one query; see lookupUserById
+    private final SingleFlight<Long, Optional<User>> idLookups = new SingleFlight<>();
+    private final SingleFlight<String, Optional<User>> usernameLookups = new SingleFlight<>();
+    
+    @Transactional
     public User registerUser(User user) {
-        telemetryClient.logEvent("Registering new user: " + user.getUsername(), "INFO");
+        telemetryClient.log("INFO", "Registering new user: {}", user.getUsername());
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        User savedUser = userRepository.save(user);
-        telemetryClient.logEvent("User registered successfully with ID: " + savedUser.getId(), "INFO");
+        User savedUser = shardedUsers != null ? shardedUsers.save(user) : userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.REGISTERED, savedUser.getId(), savedUser.getUsername(), snapshot(savedUser)));
+        telemetryClient.log("INFO", "User registered successfully with ID: {}", savedUser.getId());
         return savedUser;
     }
     
+    // No surrounding transaction, like getUserById: the lookup may wait on another caller's load
     public String authenticateUser(String username, String password) {
-        telemetryClient.logEvent("Authenticating user: " + username, "INFO");
-        User user = userRepository.findByUsername(username)
+        telemetryClient.log("INFO", "Authenticating user: {}", username);
+        Credential credential = findCredential(username)
             .orElseThrow(() -> {
-                telemetryClient.logEvent("Authentication failed: User not found - " + username, "ERROR");
+                telemetryClient.log("ERROR", "Authentication failed: User not found - {}", username);
                 return new RuntimeException("User not found");
             });
         
-        if (!passwordEncoder.matches(password, user.getPassword())) {
-            telemetryClient.logEvent("Authentication failed: Invalid password for user - " + username, "ERROR");
+        if (!passwordMatches(credential, password)) {
+            telemetryClient.log("ERROR", "Authentication failed: Invalid password for user - {}", username);
             throw new RuntimeException("Invalid password");
         }
         
-        telemetryClient.logEvent("User authenticated successfully: " + username, "INFO");
-        return generateToken(user);
+        telemetryClient.log("INFO", "User authenticated successfully: {}", username);
+        return generateToken(credential.getUsername(), credential.getId());
     }
     
+    /**
+     * Deliberately not transactional: a caller waiting on a coalesced load must not hold a
+     * connection, and the repository call opens its own read-only transaction. The returned
+     * user may be shared with concurrent callers and must not be modified.
+     */
     public User getUserById(Long id) {
-        telemetryClient.logEvent("Fetching user by ID: " + id, "INFO");
-        return userRepository.findById(id)
+        telemetryClient.log("INFO", "Fetching user by ID: {}", id);
+        return lookupUserById(id)
             .orElseThrow(() -> {
-                telemetryClient.logEvent("User not found with ID: " + id, "ERROR");
+                telemetryClient.log("ERROR", "User not found with ID: {}", id);
                 return new RuntimeException("User not found");
             });
     }
     
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
-        telemetryClient.logEvent("Fetching all users", "INFO");
-        List<User> users = userRepository.findAll();
-        telemetryClient.logEvent("Retrieved " + users.size() + " users", "INFO");
+        telemetryClient.log("INFO", "Fetching all users");
+        List<User> users = shardedUsers != null ? shardedUsers.findAll() : userRepository.findAll();
+        telemetryClient.log("INFO", "Retrieved {} users", users.size());
         return users;
     }
     
+    @Transactional(readOnly = true)
+    public Map<String, Object> getUserFieldsById(Long id, List<String> fields) {
+        telemetryClient.log("INFO", "Fetching fields {} of user ID: {}", fields, id);
+        try (ReadYourWritesTracker.Scope ignored = readYourWritesTracker.routeReadsFor(id)) {
+            return (shardedUsers != null ? shardedUsers.findFieldsById(id, fields) : userRepository.findFieldsById(id, fields))
+                .orElseThrow(() -> {
+                    telemetryClient.log("ERROR", "User not found with ID: {}", id);
+                    return new RuntimeException("User not found");
+                });
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllUserFields(List<String> fields) {
+        telemetryClient.log("INFO", "Fetching fields {} of all users", fields);
+        List<Map<String, Object>> users = shardedUsers != null ? shardedUsers.findAllFields(fields) : userRepository.findAllFields(fields);
+        telemetryClient.log("INFO", "Retrieved {} users", users.size());
+        return users;
+    }
+    
+    @Transactional
     public User updateUser(Long id, User userDetails) {
-        telemetryClient.logEvent("Updating user with ID: " + id, "INFO");
-        User user = getUserById(id);
+        return updateUser(id, userDetails, null);
+    }
+    
+    /**
+     * Replaces the mutable fields of a user. When {@code expectedVersion} is given (from If-Match)
+     * the update only proceeds if the stored version still matches; the version column also guards
+     * against a concurrent writer between this load and the flush.
+     */
+    @Transactional
+    public User updateUser(Long id, User userDetails, Long expectedVersion) {
+        telemetryClient.log("INFO", "Updating user with ID: {}", id);
+        // Load a private copy; the coalesced instance from getUserById may be shared
+        User user = findUserById(id)
+            .orElseThrow(() -> {
+                telemetryClient.log("ERROR", "User not found with ID: {}", id);
+                return new RuntimeException("User not found");
+            });
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            telemetryClient.log("WARN", "Update rejected: stale version {} for user ID: {}", expectedVersion, id);
+            throw new OptimisticLockingFailureException("User " + id + " was modified concurrently");
+        }
         user.setFirstName(userDetails.getFirstName());
         user.setLastName(userDetails.getLastName());
         user.setEmail(userDetails.getEmail());
         user.setAddress(userDetails.getAddress());
         user.setPhoneNumber(userDetails.getPhoneNumber());
-        User updatedUser = userRepository.save(user);
-        telemetryClient.logEvent("User updated successfully with ID: " + id, "INFO");
+        User updatedUser;
+        if (shardedUsers != null) {
+            // Version-guarded UPDATE on the user's shard; bumps the version on the returned object
+            updatedUser = shardedUsers.save(user);
+        } else {
+            updatedUser = userRepository.save(user);
+            // Flush so the returned entity carries the incremented version for the ETag
+            userRepository.flush();
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.UPDATED, id, updatedUser.getUsername(), snapshot(updatedUser)));
+        telemetryClient.log("INFO", "User updated successfully with ID: {}", id);
         return updatedUser;
     }
     
+    /**
+     * Applies a partial update with a single UPDATE of the changed columns and no prior SELECT.
+     * Field names must already be validated against {@code UserFields.UPDATABLE}.
+     */
+    @Transactional
+    public void patchUser(Long id, Map<String, String> changes) {
+        telemetryClient.log("INFO", "Patching fields {} of user ID: {}", changes.keySet(), id);
+        int updated = shardedUsers != null ? shardedUsers.updateFieldsById(id, changes) : userRepository.updateFieldsById(id, changes);
+        if (updated == 0) {
+            telemetryClient.log("ERROR", "User not found with ID: {}", id);
+            throw new RuntimeException("User not found");
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.UPDATED, id, null, new LinkedHashMap<>(changes)));
+        telemetryClient.log("INFO", "User patched successfully with ID: {}", id);
+    }
+    
     public boolean validateToken(String token) {
         try {
             if (token == null || token.trim().isEmpty()) {
-                telemetryClient.logEvent("Token validation failed: Empty or null token", "WARN");
+                telemetryClient.log("WARN", "Token validation failed: Empty or null token");
                 return false;
             }
             Jwts.parserBuilder()
                 .setSigningKey(getSigningKey())
                 .build()
                 .parseClaimsJws(token);
-            telemetryClient.logEvent("Token validated successfully", "INFO");
+            telemetryClient.log("INFO", "Token validated successfully");
             return true;
         } catch (Exception e) {
-            telemetryClient.logEvent("Token validation failed: " + e.getMessage(), "WARN");
+            telemetryClient.log("WARN", "Token validation failed: {}", e.getMessage());
             return false;
         }
     }
     
-    private String generateToken(User user) {
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        idLookups.bindTo(registry, "user.lookup.by_id");
+        usernameLookups.bindTo(registry, "user.lookup.by_username");
+    }
+    
+    // The credential index answers without a query; on a miss the user is loaded as usual
+    private Optional<Credential> findCredential(String username) {
+        if (credentialIndex != null) {
+            Optional<Credential> indexed = credentialIndex.find(username);
+            if (indexed.isPresent()) {
+                return indexed;
+            }
+        }
+        return lookupUserByUsername(username).map(Credential::of);
+    }
+    
+    // A hit in the credential cache stands in for BCrypt; only a full check can populate it
+    private boolean passwordMatches(Credential credential, String password) {
+        if (credentialCache == null) {
+            return passwordEncoder.matches(password, credential.getPasswordHash());
+        }
+        if (credentialCache.isVerified(credential, password)) {
+            return true;
+        }
+        long started = System.nanoTime();
+        boolean matches = passwordEncoder.matches(password, credential.getPasswordHash());
+        credentialCache.recordVerification(credential, password, matches, System.nanoTime() - started);
+        return matches;
+    }
+    
+    // Users written within the read-your-writes window skip coalescing, so a caller never joins
+    // a load that started before its own write committed.
+    private Optional<User> lookupUserById(Long id) {
+        try (ReadYourWritesTracker.Scope ignored = readYourWritesTracker.routeReadsFor(id)) {
+            if (readYourWritesTracker.isRecentlyWritten(id)) {
+                return findUserById(id);
+            }
+            return idLookups.execute(id, () -> batchingUserLoader != null
+                ? batchingUserLoader.load(id)
+                : findUserById(id));
+        }
+    }
+    
+    private Optional<User> lookupUserByUsername(String username) {
+        try (ReadYourWritesTracker.Scope ignored = readYourWritesTracker.routeReadsFor(username)) {
+            if (username == null || readYourWritesTracker.isRecentlyWritten(username)) {
+                return findUserByUsername(username);
+            }
+            return usernameLookups.execute(username, () -> findUserByUsername(username));
+        }
+    }
+    
+    // The shards have no entity or natural-id cache; every lookup there is a query
+    private Optional<User> findUserById(Long id) {
+        return shardedUsers != null ? shardedUsers.findById(id) : userRepository.findById(id);
+    }
+    
+    private Optional<User> findUserByUsername(String username) {
+        if (shardedUsers != null) {
+            return username == null ? Optional.empty() : shardedUsers.findByUsername(username);
+        }
+        return userRepository.findByUsername(username);
+    }
+    
+    // Public fields only; the outbox and other listeners must never see the password hash
+    private static Map<String, Object> snapshot(User user) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (String field : UserFields.SELECTABLE) {
+            fields.put(field, UserFields.valueOf(user, field));
+        }
+        return fields;
+    }
+    
+    private String generateToken(String username, Long userId) {
         return Jwts.builder()
-            .setSubject(user.getUsername())
-            .claim("userId", user.getId())
+            .setSubject(username)
+            .claim("userId", userId)
             .setIssuedAt(new Date())
             .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
             .signWith(getSigningKey(), SignatureAlgorithm.HS512)
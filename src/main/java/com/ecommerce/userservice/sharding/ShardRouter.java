@@ -0,0 +1,21 @@
+package com.ecommerce.userservice.sharding;
+
+/**
+ * Maps a user id to a shard. Ids come from a single sequence, so consecutive ids are first
+ * scrambled with a multiplicative (Fibonacci) hash to spread them evenly across shards.
+ *
+ * The mapping depends on the shard count; changing it requires moving rows between shards.
+ */
+public final class ShardRouter {
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private ShardRouter() {
+    }
+
+    public static int shardFor(long id, int shardCount) {
+        long hash = id * GOLDEN_RATIO;
+        hash ^= hash >>> 32;
+        return (int) Math.floorMod(hash, (long) shardCount);
+    }
+}
@@ -0,0 +1,450 @@
+package com.ecommerce.userservice.sharding;
+
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserPatch;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * User storage split across N databases with the same {@code users} schema.
+ *
+ * Ids come from a sequence in a separate directory database and pick the shard through
+ * {@link ShardRouter}, so an id lookup touches exactly one shard. The directory also maps each
+ * username to its id and shard: username lookups cost one primary-key read in the directory and one
+ * in the shard. Anything else, such as email lookups, counts and paging, is sent to every shard in
+ * parallel and the results are merged.
+ *
+ * A registration writes to two databases without a distributed transaction. The directory row is
+ * inserted first and acts as the username reservation; it is removed again if the shard insert fails.
+ *
+ * Every statement is plain JDBC in auto-commit mode: there is no entity or natural-id cache in front
+ * of the shards, and field projections select only the requested columns on each shard.
+ */
+public class ShardedUserRepository implements AutoCloseable {
+
+    private static final String COLUMNS = "id, username, email, password, first_name, last_name, address, phone_number, version";
+
+    private static final RowMapper<User> USER_ROW_MAPPER = (rs, rowNum) -> {
+        User user = new User(rs.getString("username"), rs.getString("email"), rs.getString("password"));
+        user.setId(rs.getLong("id"));
+        user.setFirstName(rs.getString("first_name"));
+        user.setLastName(rs.getString("last_name"));
+        user.setAddress(rs.getString("address"));
+        user.setPhoneNumber(rs.getString("phone_number"));
+        user.setVersion(rs.getLong("version"));
+        return user;
+    };
+
+    // UserFields names to columns; projections and partial updates accept nothing else
+    private static final Map<String, String> FIELD_COLUMNS = Map.of(
+        "id", "id",
+        "username", "username",
+        "email", "email",
+        "firstName", "first_name",
+        "lastName", "last_name",
+        "address", "address",
+        "phoneNumber", "phone_number");
+
+    private static final List<String> UPDATABLE_FIELDS = List.of("email", "firstName", "lastName", "address", "phoneNumber");
+
+    private static final Comparator<Cursor> BY_HEAD_ID = Comparator.comparingLong(cursor -> cursor.head().getId());
+
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> shards;
+    private final JdbcTemplate directory;
+    private final ExecutorService scatterPool;
+
+    public ShardedUserRepository(List<DataSource> shards, DataSource directory, ExecutorService scatterPool) {
+        this.dataSources = new ArrayList<>(shards);
+        this.dataSources.add(directory);
+        this.shards = shards.stream().map(JdbcTemplate::new).toList();
+        this.directory = new JdbcTemplate(directory);
+        this.scatterPool = scatterPool;
+    }
+
+    public void createSchema() {
+        directory.execute("CREATE SEQUENCE IF NOT EXISTS user_id_seq START WITH 1");
+        directory.execute("CREATE TABLE IF NOT EXISTS user_directory (" +
+            "username VARCHAR(255) PRIMARY KEY, user_id BIGINT NOT NULL, shard INT NOT NULL)");
+        for (JdbcTemplate shard : shards) {
+            shard.execute("CREATE TABLE IF NOT EXISTS users (" +
+                "id BIGINT PRIMARY KEY, username VARCHAR(255) NOT NULL UNIQUE, email VARCHAR(255) NOT NULL, " +
+                "password VARCHAR(255) NOT NULL, first_name VARCHAR(255), last_name VARCHAR(255), " +
+                "address VARCHAR(255), phone_number VARCHAR(255), version BIGINT NOT NULL)");
+            shard.execute("CREATE INDEX IF NOT EXISTS idx_users_email ON users (email)");
+        }
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public int shardOf(long id) {
+        return ShardRouter.shardFor(id, shards.size());
+    }
+
+    /**
+     * Inserts a user without an id, otherwise updates it guarded by its version.
+     */
+    public User save(User user) {
+        return user.getId() == null ? insert(user) : update(user);
+    }
+
+    public Optional<User> findById(Long id) {
+        return shards.get(shardOf(id))
+            .query("SELECT " + COLUMNS + " FROM users WHERE id = ?", USER_ROW_MAPPER, id)
+            .stream().findFirst();
+    }
+
+    public Optional<User> findByUsername(String username) {
+        List<long[]> entries = directory.query("SELECT user_id, shard FROM user_directory WHERE username = ?",
+            (rs, rowNum) -> new long[] { rs.getLong("user_id"), rs.getInt("shard") }, username);
+        if (entries.isEmpty()) {
+            return Optional.empty();
+        }
+        long[] entry = entries.get(0);
+        return shards.get((int) entry[1])
+            .query("SELECT " + COLUMNS + " FROM users WHERE id = ?", USER_ROW_MAPPER, entry[0])
+            .stream().findFirst();
+    }
+
+    public boolean existsByUsername(String username) {
+        Integer count = directory.queryForObject("SELECT COUNT(*) FROM user_directory WHERE username = ?", Integer.class, username);
+        return count != null && count > 0;
+    }
+
+    public Optional<User> findByEmail(String email) {
+        return scatter(shard -> shard.query("SELECT " + COLUMNS + " FROM users WHERE email = ?", USER_ROW_MAPPER, email))
+            .stream().flatMap(List::stream).findFirst();
+    }
+
+    public boolean existsByEmail(String email) {
+        return findByEmail(email).isPresent();
+    }
+
+    public long count() {
+        return scatter(shard -> shard.queryForObject("SELECT COUNT(*) FROM users", Long.class))
+            .stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Returns a page of users ordered by id. Every shard returns its first {@code offset + size}
+     * rows and the sorted lists are merged, so deep pages get expensive; prefer {@link #findAllAfter}.
+     */
+    public Page<User> findAll(Pageable pageable) {
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+        CompletableFuture<Long> total = CompletableFuture.supplyAsync(this::count, scatterPool);
+        List<List<User>> perShard = scatter(shard -> shard.query(
+            "SELECT " + COLUMNS + " FROM users ORDER BY id LIMIT ?", USER_ROW_MAPPER, offset + size));
+        List<User> page = merge(perShard, offset, size);
+        return new PageImpl<>(page, pageable, join(total));
+    }
+
+    /**
+     * Keyset page: up to {@code limit} users with an id greater than {@code afterId}, ordered by id.
+     */
+    public List<User> findAllAfter(long afterId, int limit) {
+        List<List<User>> perShard = scatter(shard -> shard.query(
+            "SELECT " + COLUMNS + " FROM users WHERE id > ? ORDER BY id LIMIT ?", USER_ROW_MAPPER, afterId, limit));
+        return merge(perShard, 0, limit);
+    }
+
+    /**
+     * Every user, ordered by id. Each shard returns its users sorted and the lists are merged.
+     */
+    public List<User> findAll() {
+        List<List<User>> perShard = scatter(shard -> shard.query(
+            "SELECT " + COLUMNS + " FROM users ORDER BY id", USER_ROW_MAPPER));
+        return merge(perShard, 0, perShard.stream().mapToInt(List::size).sum());
+    }
+
+    public List<Long> findAllIds() {
+        return scatter(shard -> shard.queryForList("SELECT id FROM users", Long.class))
+            .stream().flatMap(List::stream).toList();
+    }
+
+    /**
+     * The subset of {@code ids} that exist; each id is only looked up on its own shard.
+     */
+    public List<Long> findExistingIds(Collection<Long> ids) {
+        List<Long> existing = new ArrayList<>();
+        for (Map.Entry<Integer, List<Long>> group : groupByShard(ids).entrySet()) {
+            String placeholders = String.join(", ", Collections.nCopies(group.getValue().size(), "?"));
+            existing.addAll(shards.get(group.getKey()).queryForList(
+                "SELECT id FROM users WHERE id IN (" + placeholders + ")", Long.class, group.getValue().toArray()));
+        }
+        return existing;
+    }
+
+    /**
+     * Selects only the requested columns from the user's shard; {@code fields} are {@code UserFields} names.
+     */
+    public Optional<Map<String, Object>> findFieldsById(Long id, List<String> fields) {
+        return shards.get(shardOf(id))
+            .query("SELECT " + columns(fields) + " FROM users WHERE id = ?", fieldMapper(fields), id)
+            .stream().findFirst();
+    }
+
+    /**
+     * Projects every user onto {@code fields}, ordered by id like the single-database query.
+     */
+    public List<Map<String, Object>> findAllFields(List<String> fields) {
+        boolean withId = fields.contains("id");
+        List<String> selected = new ArrayList<>(fields);
+        if (!withId) {
+            // Needed to order the merged rows; removed again below
+            selected.add("id");
+        }
+        String sql = "SELECT " + columns(selected) + " FROM users";
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (List<Map<String, Object>> shardRows : scatter(shard -> shard.query(sql, fieldMapper(selected)))) {
+            rows.addAll(shardRows);
+        }
+        rows.sort(Comparator.comparingLong(row -> ((Number) row.get("id")).longValue()));
+        if (!withId) {
+            rows.forEach(row -> row.remove("id"));
+        }
+        return rows;
+    }
+
+    /**
+     * One {@code UPDATE} of the given columns on the user's shard, bumping the version.
+     * Returns the number of rows changed, 0 if the user does not exist.
+     */
+    public int updateFieldsById(Long id, Map<String, String> changes) {
+        List<String> fields = new ArrayList<>(new TreeSet<>(changes.keySet()));
+        Object[] args = new Object[fields.size() + 1];
+        for (int i = 0; i < fields.size(); i++) {
+            args[i] = changes.get(fields.get(i));
+        }
+        args[fields.size()] = id;
+        return shards.get(shardOf(id)).update(updateSql(fields, false), args);
+    }
+
+    /**
+     * Applies many partial updates, one JDBC batch per shard and set of changed columns. Patches with a
+     * version only apply if it still matches. Returns the affected row count of each patch, in input order.
+     * Each shard commits on its own; there is no transaction across shards.
+     */
+    public int[] updateFieldsInBatch(List<UserPatch> patches) {
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < patches.size(); i++) {
+            UserPatch patch = patches.get(i);
+            List<String> fields = new ArrayList<>(new TreeSet<>(patch.getChanges().keySet()));
+            String key = shardOf(patch.getId()) + "\n" + updateSql(fields, patch.getVersion() != null);
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+
+        int[] counts = new int[patches.size()];
+        for (Map.Entry<String, List<Integer>> group : groups.entrySet()) {
+            int separator = group.getKey().indexOf('\n');
+            JdbcTemplate shard = shards.get(Integer.parseInt(group.getKey().substring(0, separator)));
+            String sql = group.getKey().substring(separator + 1);
+            List<Object[]> batchArgs = new ArrayList<>(group.getValue().size());
+            for (int index : group.getValue()) {
+                UserPatch patch = patches.get(index);
+                List<String> fields = new ArrayList<>(new TreeSet<>(patch.getChanges().keySet()));
+                Object[] args = new Object[fields.size() + (patch.getVersion() != null ? 2 : 1)];
+                for (int f = 0; f < fields.size(); f++) {
+                    args[f] = patch.getChanges().get(fields.get(f));
+                }
+                args[fields.size()] = patch.getId();
+                if (patch.getVersion() != null) {
+                    args[fields.size() + 1] = patch.getVersion();
+                }
+                batchArgs.add(args);
+            }
+            int[] groupCounts = shard.batchUpdate(sql, batchArgs);
+            for (int i = 0; i < groupCounts.length; i++) {
+                counts[group.getValue().get(i)] = groupCounts[i] == Statement.SUCCESS_NO_INFO ? 1 : groupCounts[i];
+            }
+        }
+        return counts;
+    }
+
+    public void deleteById(Long id) {
+        Optional<User> user = findById(id);
+        if (user.isEmpty()) {
+            throw new EmptyResultDataAccessException("User " + id + " does not exist", 1);
+        }
+        shards.get(shardOf(id)).update("DELETE FROM users WHERE id = ?", id);
+        directory.update("DELETE FROM user_directory WHERE username = ?", user.get().getUsername());
+    }
+
+    @Override
+    public void close() {
+        scatterPool.shutdown();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    // Closing pools on shutdown; nothing useful to do with the failure
+                }
+            }
+        }
+    }
+
+    private User insert(User user) {
+        Long id = directory.queryForObject("SELECT NEXT VALUE FOR user_id_seq", Long.class);
+        int shard = shardOf(id);
+        directory.update("INSERT INTO user_directory (username, user_id, shard) VALUES (?, ?, ?)", user.getUsername(), id, shard);
+        try {
+            shards.get(shard).update("INSERT INTO users (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)",
+                id, user.getUsername(), user.getEmail(), user.getPassword(), user.getFirstName(),
+                user.getLastName(), user.getAddress(), user.getPhoneNumber());
+        } catch (RuntimeException e) {
+            directory.update("DELETE FROM user_directory WHERE username = ? AND user_id = ?", user.getUsername(), id);
+            throw e;
+        }
+        user.setId(id);
+        user.setVersion(0L);
+        return user;
+    }
+
+    private User update(User user) {
+        int updated = shards.get(shardOf(user.getId())).update(
+            "UPDATE users SET email = ?, password = ?, first_name = ?, last_name = ?, address = ?, phone_number = ?, " +
+            "version = version + 1 WHERE id = ? AND version = ?",
+            user.getEmail(), user.getPassword(), user.getFirstName(), user.getLastName(), user.getAddress(),
+            user.getPhoneNumber(), user.getId(), user.getVersion());
+        if (updated == 0) {
+            throw new OptimisticLockingFailureException("User " + user.getId() + " was modified concurrently or deleted");
+        }
+        user.setVersion(user.getVersion() + 1);
+        return user;
+    }
+
+    private Map<Integer, List<Long>> groupByShard(Collection<Long> ids) {
+        Map<Integer, List<Long>> groups = new LinkedHashMap<>();
+        for (Long id : ids) {
+            groups.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id);
+        }
+        return groups;
+    }
+
+    private static RowMapper<Map<String, Object>> fieldMapper(List<String> fields) {
+        return (rs, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, rs.getObject(FIELD_COLUMNS.get(field)));
+            }
+            return row;
+        };
+    }
+
+    private static String columns(List<String> fields) {
+        List<String> columns = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            String column = FIELD_COLUMNS.get(field);
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            columns.add(column);
+        }
+        return String.join(", ", columns);
+    }
+
+    private static String updateSql(List<String> fields, boolean versioned) {
+        StringBuilder sql = new StringBuilder("UPDATE users SET ");
+        for (int i = 0; i < fields.size(); i++) {
+            if (!UPDATABLE_FIELDS.contains(fields.get(i))) {
+                throw new IllegalArgumentException("Field cannot be updated: " + fields.get(i));
+            }
+            sql.append(i == 0 ? "" : ", ").append(FIELD_COLUMNS.get(fields.get(i))).append(" = ?");
+        }
+        sql.append(", version = version + 1 WHERE id = ?");
+        if (versioned) {
+            sql.append(" AND version = ?");
+        }
+        return sql.toString();
+    }
+
+    private <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (JdbcTemplate shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), scatterPool));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(join(future));
+        }
+        return results;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // k-way merge of per-shard lists that are each sorted by id
+    private static List<User> merge(List<List<User>> sortedLists, long skip, int limit) {
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Math.max(1, sortedLists.size()), BY_HEAD_ID);
+        for (List<User> list : sortedLists) {
+            if (!list.isEmpty()) {
+                heads.add(new Cursor(list));
+            }
+        }
+        List<User> merged = new ArrayList<>(limit);
+        long skipped = 0;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Cursor cursor = heads.poll();
+            User user = cursor.head();
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                merged.add(user);
+            }
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static final class Cursor {
+        private final List<User> users;
+        private int position;
+
+        Cursor(List<User> users) {
+            this.users = users;
+        }
+
+        User head() {
+            return users.get(position);
+        }
+
+        boolean advance() {
+            return ++position < users.size();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.ecommerce.userservice.sqlstats;
+
+import com.ecommerce.userservice.telemetry.TelemetryClient;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement execution statistics, fed by {@link SqlStatisticsDataSource}. Statements are grouped
+ * by normalized SQL: literals become {@code ?}, IN lists collapse to {@code in (?...)} and whitespace is
+ * squeezed, so every execution of the same query shape shares one entry.
+ *
+ * Each entry keeps call and error counts, rows returned or affected, total and maximum latency and a
+ * fixed-bucket latency histogram. Executions slower than the threshold are also kept as samples, the
+ * most recent ones first. Only SQL text is recorded, never bind parameter values.
+ */
+public class SqlStatistics {
+
+    /** Upper bounds of the histogram buckets, in microseconds; a last bucket catches anything slower. */
+    static final long[] BUCKET_BOUNDS_MICROS = {
+        100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000, 2_500_000
+    };
+
+    static final String OTHER = "<other statements>";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long slowThresholdNanos;
+    private final int maxStatements;
+    private final int maxSlowSamples;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Deque<SlowSample> slowSamples = new ArrayDeque<>();
+    private final ThreadLocal<Recording> recording = new ThreadLocal<>();
+
+    public SqlStatistics(long slowThresholdMs, int maxStatements, int maxSlowSamples) {
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000L;
+        this.maxStatements = maxStatements;
+        this.maxSlowSamples = maxSlowSamples;
+    }
+
+    public static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?...)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    /**
+     * Records one execution and returns its entry so rows read later from a result set can be added.
+     */
+    public Entry record(String sql, long elapsedNanos, long rows, boolean failed) {
+        Entry entry = entryFor(sql);
+        entry.record(elapsedNanos, rows, failed);
+        if (elapsedNanos >= slowThresholdNanos) {
+            addSlowSample(entry.sql, elapsedNanos);
+        }
+        Recording current = recording.get();
+        if (current != null) {
+            current.statements.add(entry.sql);
+        }
+        return entry;
+    }
+
+    /**
+     * Starts collecting the statements executed by the current thread until the recording is closed.
+     * Recordings nest; the innermost one receives the statements.
+     */
+    public Recording startRecording() {
+        Recording started = new Recording(this, recording.get());
+        recording.set(started);
+        return started;
+    }
+
+    public void reset() {
+        entries.clear();
+        synchronized (slowSamples) {
+            slowSamples.clear();
+        }
+    }
+
+    public long slowThresholdMs() {
+        return slowThresholdNanos / 1_000_000L;
+    }
+
+    /** Entries ordered by total time spent, most expensive first. */
+    public List<Entry> statements() {
+        List<Entry> statements = new ArrayList<>(entries.values());
+        statements.sort(Comparator.comparingLong(Entry::totalNanos).reversed());
+        return statements;
+    }
+
+    public List<SlowSample> slowSamples() {
+        synchronized (slowSamples) {
+            return new ArrayList<>(slowSamples);
+        }
+    }
+
+    private Entry entryFor(String sql) {
+        String key = sql == null ? OTHER : normalize(sql);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        // Statements built with inlined values could otherwise grow the map without bound
+        if (entries.size() >= maxStatements) {
+            return entries.computeIfAbsent(OTHER, Entry::new);
+        }
+        return entries.computeIfAbsent(key, Entry::new);
+    }
+
+    private void addSlowSample(String sql, long elapsedNanos) {
+        SlowSample sample = new SlowSample(sql, elapsedNanos / 1_000_000.0, Instant.now(),
+            Thread.currentThread().getName(), TelemetryClient.TraceContext.getTraceId());
+        synchronized (slowSamples) {
+            slowSamples.addFirst(sample);
+            while (slowSamples.size() > maxSlowSamples) {
+                slowSamples.removeLast();
+            }
+        }
+    }
+
+    public static final class Entry {
+        private final String sql;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MICROS.length + 1);
+
+        Entry(String sql) {
+            this.sql = sql;
+        }
+
+        void record(long elapsedNanos, long rowCount, boolean failed) {
+            calls.increment();
+            if (failed) {
+                errors.increment();
+            }
+            rows.add(rowCount);
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+            buckets.incrementAndGet(bucketOf(elapsedNanos / 1_000));
+        }
+
+        public void addRows(long rowCount) {
+            rows.add(rowCount);
+        }
+
+        public String sql() { return sql; }
+        public long calls() { return calls.sum(); }
+        public long errors() { return errors.sum(); }
+        public long rows() { return rows.sum(); }
+        public long totalNanos() { return totalNanos.sum(); }
+        public long maxNanos() { return maxNanos.get(); }
+
+        public long[] histogram() {
+            long[] counts = new long[buckets.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return counts;
+        }
+
+        /**
+         * Upper bound, in milliseconds, of the bucket holding the given percentile; the maximum for the last bucket.
+         */
+        public double percentileMs(double percentile) {
+            long[] counts = histogram();
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(BUCKET_BOUNDS_MICROS[i] / 1_000.0, maxNanos() / 1_000_000.0);
+                }
+            }
+            return maxNanos() / 1_000_000.0;
+        }
+
+        public Map<String, Object> toMap() {
+            long count = calls();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("sql", sql);
+            map.put("calls", count);
+            map.put("errors", errors());
+            map.put("rows", rows());
+            map.put("totalMs", totalNanos() / 1_000_000.0);
+            map.put("meanMs", count == 0 ? 0 : totalNanos() / 1_000_000.0 / count);
+            map.put("maxMs", maxNanos() / 1_000_000.0);
+            map.put("p50Ms", percentileMs(0.50));
+            map.put("p95Ms", percentileMs(0.95));
+            map.put("p99Ms", percentileMs(0.99));
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            long[] counts = histogram();
+            for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+                histogram.put("le " + BUCKET_BOUNDS_MICROS[i] / 1_000.0 + "ms", counts[i]);
+            }
+            histogram.put("gt " + BUCKET_BOUNDS_MICROS[BUCKET_BOUNDS_MICROS.length - 1] / 1_000.0 + "ms", counts[BUCKET_BOUNDS_MICROS.length]);
+            map.put("histogram", histogram);
+            return map;
+        }
+
+        private static int bucketOf(long micros) {
+            for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+                if (micros <= BUCKET_BOUNDS_MICROS[i]) {
+                    return i;
+                }
+            }
+            return BUCKET_BOUNDS_MICROS.length;
+        }
+    }
+
+    public static final class SlowSample {
+        private final String sql;
+        private final double durationMs;
+        private final Instant timestamp;
+        private final String thread;
+        private final String traceId;
+
+        SlowSample(String sql, double durationMs, Instant timestamp, String thread, String traceId) {
+            this.sql = sql;
+            this.durationMs = durationMs;
+            this.timestamp = timestamp;
+            this.thread = thread;
+            this.traceId = traceId;
+        }
+
+        public String getSql() { return sql; }
+        public double getDurationMs() { return durationMs; }
+        public Instant getTimestamp() { return timestamp; }
+        public String getThread() { return thread; }
+        public String getTraceId() { return traceId; }
+    }
+
+    /**
+     * Statements executed by one thread between {@link #startRecording()} and {@link #close()}.
+     */
+    public static final class Recording implements AutoCloseable {
+        private final SqlStatistics statistics;
+        private final Recording previous;
+        private final List<String> statements = new ArrayList<>();
+
+        Recording(SqlStatistics statistics, Recording previous) {
+            this.statistics = statistics;
+            this.previous = previous;
+        }
+
+        /** Normalized SQL of each execution so far, in order. */
+        public List<String> statements() {
+            return List.copyOf(statements);
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                statistics.recording.remove();
+            } else {
+                statistics.recording.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.ecommerce.userservice.sqlstats;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Wraps a {@link DataSource} in JDK dynamic proxies that time every statement execution and report
+ * it to {@link SqlStatistics}. Connections, statements and result sets handed out are proxies too;
+ * rows are counted as a result set is iterated and added when it is closed.
+ *
+ * {@code unwrap} and {@code isWrapperFor} see through the proxies, so pool metrics and health checks
+ * still find the underlying pool.
+ */
+public final class SqlStatisticsDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+        "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private SqlStatisticsDataSource() {
+    }
+
+    public static DataSource wrap(DataSource target, SqlStatistics statistics) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection connection ? wrapConnection(connection, statistics) : result;
+        };
+        // Keep close() reachable so the context still shuts the pool down
+        return target instanceof AutoCloseable
+            ? proxy(DataSource.class, target, handler, AutoCloseable.class)
+            : proxy(DataSource.class, target, handler);
+    }
+
+    private static Connection wrapConnection(Connection target, SqlStatistics statistics) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, statement, new StatementHandler(statement, (String) args[0], statistics));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement, new StatementHandler(statement, (String) args[0], statistics));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, statement, new StatementHandler(statement, null, statistics));
+            }
+            return result;
+        });
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final SqlStatistics statistics;
+        private String batchSql;
+        private SqlStatistics.Entry lastEntry;
+
+        StatementHandler(Statement target, String preparedSql, SqlStatistics statistics) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1 && args[0] instanceof String sql) {
+                batchSql = sql;
+            }
+            if (name.equals("getResultSet")) {
+                Object result = SqlStatisticsDataSource.invoke(target, method, args);
+                return result instanceof ResultSet resultSet && lastEntry != null ? wrapResultSet(resultSet, lastEntry) : result;
+            }
+            if (!EXECUTE_METHODS.contains(name)) {
+                return SqlStatisticsDataSource.invoke(target, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+                : preparedSql != null ? preparedSql : batchSql;
+            long started = System.nanoTime();
+            Object result;
+            try {
+                result = SqlStatisticsDataSource.invoke(target, method, args);
+            } catch (Throwable e) {
+                statistics.record(sql, System.nanoTime() - started, 0, true);
+                throw e;
+            }
+            lastEntry = statistics.record(sql, System.nanoTime() - started, affectedRows(result), false);
+            return result instanceof ResultSet resultSet ? wrapResultSet(resultSet, lastEntry) : result;
+        }
+
+        private static long affectedRows(Object result) {
+            if (result instanceof Integer count) {
+                return Math.max(0, count);
+            }
+            if (result instanceof Long count) {
+                return Math.max(0, count);
+            }
+            long rows = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    // Statement.SUCCESS_NO_INFO: the row was written but the driver did not count it
+                    rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static ResultSet wrapResultSet(ResultSet target, SqlStatistics.Entry entry) {
+        long[] rows = new long[1];
+        boolean[] closed = new boolean[1];
+        return proxy(ResultSet.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rows[0]++;
+            } else if (method.getName().equals("close") && !closed[0]) {
+                closed[0] = true;
+                entry.addRows(rows[0]);
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler, Class<?>... extraInterfaces) {
+        InvocationHandler unwrapping = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(target) ? target : invoke(target, method, args);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(target) || (Boolean) invoke(target, method, args);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SqlStatistics[" + target + "]";
+                default:
+                    return handler.invoke(proxy, method, args);
+            }
+        };
+        Class<?>[] interfaces = new Class<?>[extraInterfaces.length + 1];
+        interfaces[0] = type;
+        System.arraycopy(extraInterfaces, 0, interfaces, 1, extraInterfaces.length);
+        return (T) Proxy.newProxyInstance(SqlStatisticsDataSource.class.getClassLoader(), interfaces, unwrapping);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.userservice.sqlstats;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/sqlstats}: statement statistics, most expensive first, and recent slow executions.
+ * A DELETE clears everything, e.g. before a load test. Both require an authenticated caller.
+ */
+@Endpoint(id = "sqlstats")
+public class SqlStatsEndpoint {
+
+    private final SqlStatistics statistics;
+
+    public SqlStatsEndpoint(SqlStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> sqlStats() {
+        List<Map<String, Object>> statements = statistics.statements().stream()
+            .map(SqlStatistics.Entry::toMap)
+            .toList();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("slowThresholdMs", statistics.slowThresholdMs());
+        result.put("statements", statements);
+        result.put("slowQueries", statistics.slowSamples());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.reset();
+    }
+}
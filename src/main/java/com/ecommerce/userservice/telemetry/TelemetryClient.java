@@ -1,5 +1,6 @@
 package com.ecommerce.userservice.telemetry;
 
+import org.slf4j.helpers.MessageFormatter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -8,6 +9,7 @@ import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 @Component
 public class TelemetryClient {
@@ -101,20 +103,48 @@ public class TelemetryClient {
     }
     
     public void logEvent(String message, String level) {
-        String traceId = TraceContext.getTraceId();
-        String spanId = TraceContext.getSpanId();
-        
-        if (traceId == null) return;
-        
+        if (!isLogEnabled()) return;
+        sendLogEvent(level, message, null);
+    }
+    
+    /**
+     * True if log events would be exported, i.e. the current thread is inside a trace.
+     */
+    public boolean isLogEnabled() {
+        return TraceContext.getTraceId() != null;
+    }
+    
+    /**
+     * Logs an SLF4J-style template such as {@code "Fetching user by ID: {}"}. The message is only
+     * formatted when the event is exported; the template is sent alongside it so events can be grouped.
+     * A trailing {@link Throwable} is formatted like any other argument.
+     */
+    public void log(String level, String template, Object... args) {
+        if (!isLogEnabled()) return;
+        sendLogEvent(level, MessageFormatter.arrayFormat(template, args, null).getMessage(), template);
+    }
+    
+    /**
+     * Logs a message that is only built when the event is exported.
+     */
+    public void log(String level, Supplier<String> message) {
+        if (!isLogEnabled()) return;
+        sendLogEvent(level, message.get(), null);
+    }
+    
+    private void sendLogEvent(String level, String message, String template) {
         Map<String, Object> eventData = createEventData();
-        eventData.put("traceId", traceId);
-        eventData.put("spanId", spanId);
+        eventData.put("traceId", TraceContext.getTraceId());
+        eventData.put("spanId", TraceContext.getSpanId());
         eventData.put("serviceName", serviceName);
         eventData.put("operation", "log_" + level.toLowerCase());
         eventData.put("eventType", "LOG");
         eventData.put("timestamp", LocalDateTime.now());
         eventData.put("status", "SUCCESS");
         eventData.put("metadata", message);
+        if (template != null) {
+            eventData.put("messageTemplate", template);
+        }
         sendTelemetryEvent(eventData);
     }
     
@@ -0,0 +1,96 @@
+package com.ecommerce.userservice.auth;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class CredentialCacheTest {
+
+    private CredentialCache credentialCache;
+    private Credential credential;
+
+    @BeforeEach
+    void setUp() {
+        credentialCache = new CredentialCache();
+        ReflectionTestUtils.setField(credentialCache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(credentialCache, "maxEntries", 100);
+
+        credential = new Credential(7L, "alice", "$2a$10$hash", 0L);
+    }
+
+    @Test
+    void isVerified_AfterSuccessfulCheck_ShouldMatchOnlyTheSamePassword() {
+        // Given
+        credentialCache.recordVerification(credential, "secret", true, 80_000_000L);
+
+        // When & Then
+        assertThat(credentialCache.isVerified(credential, "secret")).isTrue();
+        assertThat(credentialCache.isVerified(credential, "Secret")).isFalse();
+    }
+
+    @Test
+    void isVerified_AfterFailedCheck_ShouldMiss() {
+        // Given
+        credentialCache.recordVerification(credential, "secret", true, 80_000_000L);
+
+        // When
+        credentialCache.recordVerification(credential, "guess", false, 80_000_000L);
+
+        // Then
+        assertThat(credentialCache.isVerified(credential, "secret")).isFalse();
+    }
+
+    @Test
+    void isVerified_WhenUserVersionOrHashChanged_ShouldMiss() {
+        // Given
+        credentialCache.recordVerification(credential, "secret", true, 80_000_000L);
+
+        // When & Then
+        assertThat(credentialCache.isVerified(new Credential(7L, "alice", "$2a$10$hash", 1L), "secret")).isFalse();
+        assertThat(credentialCache.isVerified(new Credential(7L, "alice", "$2a$10$other", 0L), "secret")).isFalse();
+    }
+
+    @Test
+    void onUserChanged_WithIdOnly_ShouldEvictEntry() {
+        // Given
+        credentialCache.recordVerification(credential, "secret", true, 80_000_000L);
+
+        // When
+        credentialCache.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, 7L, null));
+
+        // Then
+        assertThat(credentialCache.size()).isZero();
+        assertThat(credentialCache.isVerified(credential, "secret")).isFalse();
+    }
+
+    @Test
+    void isVerified_AfterTtl_ShouldMiss() {
+        // Given
+        ReflectionTestUtils.setField(credentialCache, "ttlSeconds", 0L);
+        credentialCache.recordVerification(credential, "secret", true, 80_000_000L);
+
+        // When & Then
+        assertThat(credentialCache.isVerified(credential, "secret")).isFalse();
+    }
+
+    @Test
+    void bindTo_ShouldReportBCryptTimeSavedByHits() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        credentialCache.bindTo(registry);
+        credentialCache.recordVerification(credential, "secret", true, 100_000_000L);
+
+        // When
+        credentialCache.isVerified(credential, "secret");
+        credentialCache.isVerified(credential, "secret");
+
+        // Then
+        assertThat(registry.get("auth.credential_cache.bcrypt_saved").functionCounter().count()).isCloseTo(0.2, within(1e-9));
+        assertThat(registry.get("auth.credential_cache.requests").tag("result", "hit").functionCounter().count()).isEqualTo(2.0);
+    }
+}
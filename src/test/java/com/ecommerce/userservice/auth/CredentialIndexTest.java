@@ -0,0 +1,151 @@
+package com.ecommerce.userservice.auth;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CredentialIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private JdbcTemplate jdbcTemplate;
+    private CredentialIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:credentials_" + UUID.randomUUID().toString().substring(0, 8) + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(255), password VARCHAR(255))");
+        addUser(1, "alice", "$2a$10$alice");
+        addUser(2, "bob", "$2a$10$bob");
+        index = newIndex(16);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (index != null) {
+            index.close();
+        }
+    }
+
+    @Test
+    void verify_OnEmptyFile_ShouldBuildFromUsersTable() {
+        // When
+        index.verify();
+
+        // Then
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+        Optional<Credential> alice = index.find("alice");
+        assertThat(alice).isPresent();
+        assertThat(alice.get().getId()).isEqualTo(1L);
+        assertThat(alice.get().getPasswordHash()).isEqualTo("$2a$10$alice");
+        assertThat(index.find("carol")).isEmpty();
+    }
+
+    @Test
+    void find_BeforeVerify_ShouldDeferToDatabase() {
+        assertThat(index.find("alice")).isEmpty();
+    }
+
+    @Test
+    void onUserChanged_WhenRegistered_ShouldAddUser() {
+        // Given
+        index.verify();
+        addUser(3, "carol", "$2a$10$carol");
+
+        // When
+        index.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.REGISTERED, 3L, "carol"));
+
+        // Then
+        assertThat(index.find("carol")).map(Credential::getId).contains(3L);
+    }
+
+    @Test
+    void put_BeyondLoadFactor_ShouldGrowAndKeepEveryEntry() {
+        // Given
+        index.verify();
+
+        // When
+        for (long id = 10; id < 200; id++) {
+            index.put(new Credential(id, "user" + id, "$2a$10$user" + id, null));
+        }
+
+        // Then
+        assertThat(index.size()).isEqualTo(192);
+        for (long id = 10; id < 200; id++) {
+            assertThat(index.find("user" + id)).map(Credential::getId).contains(id);
+        }
+        assertThat(index.find("alice")).isPresent();
+    }
+
+    @Test
+    void reopen_AfterCleanClose_ShouldReuseFileWithoutRebuild() throws Exception {
+        // Given
+        index.verify();
+        index.close();
+
+        // When
+        index = newIndex(16);
+        index.verify();
+
+        // Then
+        assertThat(index.rebuilds()).isZero();
+        assertThat(index.find("bob")).map(Credential::getPasswordHash).contains("$2a$10$bob");
+    }
+
+    @Test
+    void reopen_WhenTableChanged_ShouldRebuild() throws Exception {
+        // Given
+        index.verify();
+        index.close();
+        addUser(3, "carol", "$2a$10$carol");
+
+        // When
+        index = newIndex(16);
+        index.verify();
+
+        // Then
+        assertThat(index.rebuilds()).isEqualTo(1);
+        assertThat(index.find("carol")).isPresent();
+    }
+
+    @Test
+    void find_WithUsernameTooLongToIndex_ShouldDeferToDatabase() {
+        // Given
+        String longName = "x".repeat(CredentialIndex.MAX_USERNAME_BYTES + 1);
+        addUser(4, longName, "$2a$10$long");
+
+        // When
+        index.verify();
+
+        // Then
+        assertThat(index.find(longName)).isEmpty();
+    }
+
+    private CredentialIndex newIndex(int initialCapacity) throws Exception {
+        CredentialIndex created = new CredentialIndex();
+        ReflectionTestUtils.setField(created, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(created, "path", dir.resolve("credential-index.bin").toString());
+        ReflectionTestUtils.setField(created, "initialCapacity", initialCapacity);
+        created.open();
+        return created;
+    }
+
+    private void addUser(long id, String username, String password) {
+        jdbcTemplate.update("INSERT INTO users (id, username, password) VALUES (?, ?, ?)", id, username, password);
+    }
+}
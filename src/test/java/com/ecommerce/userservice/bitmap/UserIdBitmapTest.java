@@ -0,0 +1,113 @@
+package com.ecommerce.userservice.bitmap;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import com.ecommerce.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserIdBitmapTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserIdBitmap idBitmap;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idBitmap, "maxDeltaIds", 4);
+    }
+
+    @Test
+    void load_ShouldContainEveryStoredId() throws IOException {
+        // Given
+        when(userRepository.findAllIds()).thenReturn(List.of(1L, 2L, 5L));
+
+        // When
+        idBitmap.load();
+        UserIdBitmap.Snapshot snapshot = idBitmap.since(null);
+
+        // Then
+        assertThat(idBitmap.contains(5L)).isTrue();
+        assertThat(idBitmap.contains(3L)).isFalse();
+        assertThat(snapshot.isDelta()).isFalse();
+        assertThat(decode(snapshot).toArray()).containsExactly(1, 2, 5);
+        assertThat(snapshot.getVersion()).endsWith("-3");
+    }
+
+    @Test
+    void since_WithRecentVersion_ShouldReturnOnlyNewIds() throws IOException {
+        // Given
+        idBitmap.add(1L);
+        idBitmap.add(2L);
+        String version = idBitmap.version();
+
+        // When
+        idBitmap.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.REGISTERED, 7L, "alice"));
+        idBitmap.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, 8L, "bob"));
+        UserIdBitmap.Snapshot delta = idBitmap.since(version);
+
+        // Then
+        assertThat(delta.isDelta()).isTrue();
+        assertThat(decode(delta).toArray()).containsExactly(7);
+        assertThat(delta.getVersion()).isEqualTo(idBitmap.version());
+    }
+
+    @Test
+    void add_ExistingId_ShouldNotChangeVersion() {
+        // Given
+        idBitmap.add(1L);
+        String version = idBitmap.version();
+
+        // When & Then
+        assertThat(idBitmap.add(1L)).isFalse();
+        assertThat(idBitmap.version()).isEqualTo(version);
+    }
+
+    @Test
+    void since_WithVersionFromAnotherEpochOrBeyondHistory_ShouldReturnFullBitmap() throws IOException {
+        // Given
+        idBitmap.add(1L);
+        String first = idBitmap.version();
+        for (long id = 2; id <= 2000; id++) {
+            idBitmap.add(id);
+        }
+
+        // When
+        UserIdBitmap.Snapshot stale = idBitmap.since(first);
+        UserIdBitmap.Snapshot otherEpoch = idBitmap.since("abc-1");
+
+        // Then
+        assertThat(stale.isDelta()).isFalse();
+        assertThat(stale.getCardinality()).isEqualTo(2000);
+        assertThat(otherEpoch.isDelta()).isFalse();
+        assertThat(decode(otherEpoch).getCardinality()).isEqualTo(2000);
+    }
+
+    @Test
+    void since_WithMalformedVersion_ShouldThrow() {
+        assertThatThrownBy(() -> idBitmap.since("nonsense")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> idBitmap.since("abc-x")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static RoaringBitmap decode(UserIdBitmap.Snapshot snapshot) throws IOException {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.deserialize(ByteBuffer.wrap(snapshot.getBody()));
+        return bitmap;
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecommerce.userservice.cache;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import com.ecommerce.userservice.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserResponseCacheTest {
+
+    private UserResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserResponseCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+    }
+
+    @Test
+    void put_ShouldStoreEncodedJsonWithoutPassword() {
+        // When
+        cache.put(user(1L, 2L, "alice"), cache.stamp());
+
+        // Then
+        UserResponseCache.CachedResponse cached = cache.get(1L);
+        assertThat(cached).isNotNull();
+        assertThat(cached.getVersion()).isEqualTo(2L);
+        String json = new String(cached.getBody(), StandardCharsets.UTF_8);
+        assertThat(json).contains("\"username\":\"alice\"").doesNotContain("password").doesNotContain("hash");
+    }
+
+    @Test
+    void onUserChanged_ShouldInvalidateEntry() {
+        // Given
+        cache.put(user(1L, 2L, "alice"), cache.stamp());
+
+        // When
+        cache.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, 1L, null));
+
+        // Then
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void put_WithStampTakenBeforeInvalidation_ShouldNotResurrectStaleBody() {
+        // Given - a reader starts loading version 2, then the user is updated
+        long staleStamp = cache.stamp();
+        cache.invalidate(1L);
+
+        // When
+        UserResponseCache.CachedResponse returned = cache.put(user(1L, 2L, "alice"), staleStamp);
+
+        // Then
+        assertThat(returned.getVersion()).isEqualTo(2L);
+        assertThat(cache.get(1L)).isNull();
+
+        // A reader that started after the invalidation may cache
+        cache.put(user(1L, 3L, "alice"), cache.stamp());
+        assertThat(cache.get(1L).getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void put_ShouldNotReplaceNewerVersion() {
+        // Given
+        cache.put(user(1L, 5L, "alice"), cache.stamp());
+
+        // When
+        cache.put(user(1L, 4L, "alice"), cache.stamp());
+
+        // Then
+        assertThat(cache.get(1L).getVersion()).isEqualTo(5L);
+    }
+
+    @Test
+    void put_WhenFull_ShouldStayBounded() {
+        for (long id = 1; id <= 500; id++) {
+            cache.put(user(id, 0L, "user" + id), cache.stamp());
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void invalidate_ManyUsers_ShouldStayBounded() {
+        for (long id = 1; id <= 500; id++) {
+            cache.invalidate(id);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void put_AfterTombstoneWasTrimmed_ShouldNotStoreStaleBody() {
+        // Given - a reader of user 1 starts, user 1 changes, and its tombstone is trimmed away
+        long staleStamp = cache.stamp();
+        cache.invalidate(1L);
+        for (long id = 2; id <= 500; id++) {
+            cache.invalidate(id);
+        }
+
+        // When
+        cache.put(user(1L, 2L, "alice"), staleStamp);
+
+        // Then
+        assertThat(cache.get(1L)).isNull();
+        cache.put(user(1L, 3L, "alice"), cache.stamp());
+        assertThat(cache.get(1L).getVersion()).isEqualTo(3L);
+    }
+
+    private static User user(Long id, Long version, String username) {
+        User user = new User(username, username + "@example.com", "$2a$10$hash");
+        user.setId(id);
+        user.setVersion(version);
+        return user;
+    }
+}
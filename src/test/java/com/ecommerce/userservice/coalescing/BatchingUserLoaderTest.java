@@ -0,0 +1,105 @@
+package com.ecommerce.userservice.coalescing;
+
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchingUserLoaderTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private BatchingUserLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(loader, "windowMicros", 50_000L);
+        ReflectionTestUtils.setField(loader, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(loader, "flushThreads", 1);
+        loader.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void load_ConcurrentLookupsWithinWindow_ShouldShareOneQuery() throws Exception {
+        // Given
+        when(userRepository.findAllByIdCached(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id != 3L).map(BatchingUserLoaderTest::user).toList();
+        });
+
+        // When
+        List<CompletableFuture<Optional<User>>> results = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            long userId = id;
+            results.add(CompletableFuture.supplyAsync(() -> loader.load(userId)));
+        }
+
+        // Then
+        assertThat(results.get(0).get(5, TimeUnit.SECONDS)).get().extracting(User::getId).isEqualTo(1L);
+        assertThat(results.get(1).get(5, TimeUnit.SECONDS)).get().extracting(User::getId).isEqualTo(2L);
+        assertThat(results.get(2).get(5, TimeUnit.SECONDS)).isEmpty();
+        ArgumentCaptor<List<Long>> ids = ArgumentCaptor.forClass(List.class);
+        verify(userRepository, times(1)).findAllByIdCached(ids.capture());
+        assertThat(ids.getValue()).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void load_WhenBatchIsFull_ShouldNotWaitForWindow() {
+        // Given
+        ReflectionTestUtils.setField(loader, "windowMicros", TimeUnit.SECONDS.toMicros(30));
+        ReflectionTestUtils.setField(loader, "maxBatchSize", 1);
+        when(userRepository.findAllByIdCached(List.of(7L))).thenReturn(List.of(user(7L)));
+
+        // When
+        long started = System.nanoTime();
+        Optional<User> result = loader.load(7L);
+
+        // Then
+        assertThat(result).isPresent();
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started)).isLessThan(5);
+    }
+
+    @Test
+    void load_WhenQueryFails_ShouldPropagateToCaller() {
+        // Given
+        when(userRepository.findAllByIdCached(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        // When & Then
+        assertThatThrownBy(() -> loader.load(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("database down");
+    }
+
+    private static User user(Long id) {
+        User user = new User("user" + id, "user" + id + "@example.com", "hash");
+        user.setId(id);
+        return user;
+    }
+}
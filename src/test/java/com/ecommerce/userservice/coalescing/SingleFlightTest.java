@@ -0,0 +1,102 @@
+package com.ecommerce.userservice.coalescing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_ConcurrentCallsForSameKey_ShouldShareOneLoad() throws Exception {
+        // Given
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        // When
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "user-1";
+            })));
+        }
+        waitUntil(() -> singleFlight.loads() + singleFlight.coalesced() == callers);
+        release.countDown();
+
+        // Then
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+        }
+        executor.shutdown();
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(singleFlight.coalesced()).isEqualTo(callers - 1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    void execute_AfterLoadCompletes_ShouldLoadAgain() {
+        // When
+        singleFlight.execute(1L, () -> "first");
+        String second = singleFlight.execute(1L, () -> "second");
+
+        // Then
+        assertThat(second).isEqualTo("second");
+        assertThat(singleFlight.loads()).isEqualTo(2);
+        assertThat(singleFlight.coalesced()).isZero();
+    }
+
+    @Test
+    void execute_WhenLoaderFails_ShouldPropagateAndForgetKey() {
+        // When & Then
+        assertThatThrownBy(() -> singleFlight.execute(1L, () -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("database down");
+        assertThat(singleFlight.execute(1L, () -> "recovered")).isEqualTo("recovered");
+    }
+
+    @Test
+    void bindTo_ShouldExposeLoadAndCoalescedCounters() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        singleFlight.bindTo(registry, "user.lookup.by_id");
+
+        // When
+        singleFlight.execute(1L, () -> "user-1");
+
+        // Then
+        assertThat(registry.get("user.lookup.by_id.loads").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("user.lookup.by_id.coalesced").functionCounter().count()).isZero();
+        assertThat(registry.get("user.lookup.by_id.in_flight").gauge().value()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.ecommerce.userservice.coalescing;
+
+import com.ecommerce.userservice.UserServiceApplication;
+import com.ecommerce.userservice.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares {@code UserService.getUserById} with and without {@link BatchingUserLoader}: database
+ * round trips (prepared statements) per lookup, throughput and latency percentiles.
+ * Not a unit test; run with {@code ./gradlew lookupBenchmark [-Pthreads=64 -Pseconds=10 -Pusers=20000]}.
+ *
+ * The application runs on a random port, but lookups call the service directly. The second-level cache is switched off so that every lookup has to reach the database.
+ */
+public class UserLookupBatchingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int users = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+
+        System.out.printf("threads=%d seconds=%d users=%d%n", threads, seconds, users);
+        System.out.printf("%-9s %12s %14s %10s %10s %10s%n", "batching", "lookups/s", "stmts/lookup", "p50 us", "p99 us", "p999 us");
+        for (boolean batching : new boolean[] { false, true }) {
+            try (ConfigurableApplicationContext context = start(batching, users)) {
+                run(context, batching, threads, seconds, users);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean batching, int users) {
+        return new SpringApplicationBuilder(UserServiceApplication.class)
+            .properties(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:lookup_bench_" + batching,
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "logging.level.root=WARN",
+                "logging.level.com.ecommerce.userservice=WARN",
+                "seed.synthetic.users=" + users,
+                "user.batching.enabled=" + batching)
+            .run();
+    }
+
+    private static void run(ConfigurableApplicationContext context, boolean batching, int threads, int seconds, int users)
+            throws InterruptedException {
+        UserService userService = context.getBean(UserService.class);
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        // Canonical seed users plus the synthetic ones
+        int maxId = users + 8;
+
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        CountDownLatch finished = new CountDownLatch(threads);
+        long[][] latencies = new long[threads][];
+        int[] counts = new int[threads];
+        statistics.clear();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long started = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int client = t;
+            clients.execute(() -> {
+                long[] samples = new long[1 << 16];
+                int count = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long begin = System.nanoTime();
+                        userService.getUserById(1L + random.nextInt(maxId));
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - begin;
+                    }
+                } finally {
+                    latencies[client] = samples;
+                    counts[client] = count;
+                    finished.countDown();
+                }
+            });
+        }
+        finished.await();
+        clients.shutdown();
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(latencies[t], 0, all, offset, counts[t]);
+            offset += counts[t];
+        }
+        Arrays.sort(all);
+        System.out.printf("%-9s %12.0f %14.3f %10d %10d %10d%n", batching, total / elapsed,
+            (double) statistics.getPrepareStatementCount() / Math.max(1, total),
+            percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999));
+    }
+
+    private static long percentile(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(quantile * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(0, index)] / 1000;
+    }
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.userservice.codec;
+
+import com.ecommerce.userservice.model.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserWireFormatTest {
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @Test
+    void negotiate_WithoutAcceptOrWildcard_ShouldDefaultToJson() {
+        assertThat(UserWireFormat.negotiate(null)).isEqualTo(UserWireFormat.JSON);
+        assertThat(UserWireFormat.negotiate("*/*")).isEqualTo(UserWireFormat.JSON);
+    }
+
+    @Test
+    void negotiate_ShouldHonourQualityAndSpecificity() {
+        assertThat(UserWireFormat.negotiate("application/cbor")).isEqualTo(UserWireFormat.CBOR);
+        assertThat(UserWireFormat.negotiate("*/*, application/x-jackson-smile")).isEqualTo(UserWireFormat.SMILE);
+        assertThat(UserWireFormat.negotiate("application/cbor;q=0.5, application/json")).isEqualTo(UserWireFormat.JSON);
+    }
+
+    @Test
+    void negotiate_WithOnlyUnsupportedTypes_ShouldReturnNull() {
+        assertThat(UserWireFormat.negotiate("application/xml")).isNull();
+        assertThat(UserWireFormat.negotiate("application/cbor;q=0")).isNull();
+    }
+
+    @Test
+    void binaryFormats_ShouldUseTheDeclaredFieldNamesInOrder() throws Exception {
+        // Given
+        User user = new User("alice", "alice@example.com", "hash");
+        user.setId(1L);
+        user.setVersion(0L);
+
+        for (UserWireFormat format : UserWireFormat.values()) {
+            // When
+            ObjectMapper mapper = format.mapperFrom(jsonMapper);
+            JsonNode tree = mapper.readTree(mapper.writeValueAsBytes(user));
+
+            // Then
+            List<String> names = new ArrayList<>();
+            tree.fieldNames().forEachRemaining(names::add);
+            assertThat(names).as(format.name()).containsExactly(
+                "id", "username", "email", "firstName", "lastName", "address", "phoneNumber", "version");
+        }
+    }
+
+    @Test
+    void binaryFormats_ShouldRoundTripAndBeSmallerThanJson() throws Exception {
+        // Given - a bulk list, where binary encodings gain most from repeated field names
+        List<User> users = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            User user = new User("user" + id, "user" + id + "@example.com", "hash");
+            user.setId(id);
+            user.setFirstName("First" + id);
+            user.setLastName("Last" + id);
+            user.setVersion(0L);
+            users.add(user);
+        }
+        int jsonSize = UserWireFormat.JSON.mapperFrom(jsonMapper).writeValueAsBytes(users).length;
+
+        for (UserWireFormat format : List.of(UserWireFormat.CBOR, UserWireFormat.SMILE)) {
+            // When
+            ObjectMapper mapper = format.mapperFrom(jsonMapper);
+            byte[] encoded = mapper.writeValueAsBytes(users);
+            User[] decoded = mapper.readValue(encoded, User[].class);
+
+            // Then
+            assertThat(encoded.length).as(format + " size").isLessThan(jsonSize);
+            assertThat(decoded).hasSize(100);
+            assertThat(decoded[41].getUsername()).isEqualTo("user42");
+            assertThat(decoded[41].getId()).isEqualTo(42L);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.ecommerce.userservice.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -22,6 +23,9 @@ public class DataLoaderTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private SyntheticUserGenerator syntheticUserGenerator;
+
     @InjectMocks
     private DataLoader dataLoader;
 
@@ -52,6 +56,7 @@ public class DataLoaderTest {
         verify(userRepository).count();
         verify(userRepository, never()).save(any(User.class));
         verifyNoInteractions(passwordEncoder);
+        verifyNoInteractions(syntheticUserGenerator);
     }
 
     @Test
@@ -66,4 +71,19 @@ public class DataLoaderTest {
         // Then
         verify(passwordEncoder, times(8)).encode("password123");
     }
-}
\ No newline at end of file
+
+    @Test
+    void run_WithEmptyDatabase_ShouldStartGeneratorAfterSeedUsers() throws Exception {
+        // Given
+        when(userRepository.count()).thenReturn(0L);
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+
+        // When
+        dataLoader.run();
+
+        // Then
+        InOrder order = inOrder(userRepository, syntheticUserGenerator);
+        order.verify(userRepository, times(8)).save(any(User.class));
+        order.verify(syntheticUserGenerator).start();
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.userservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("prod")
+public class LazyInitializationConfigTest {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prodProfile_ShouldInitializeLazilyExceptExcludedBeans() {
+        // Then
+        assertThat(beanFactory.getBeanDefinition("userService").isLazyInit()).isTrue();
+        assertThat(beanFactory.getBeanDefinition("userChangeOutbox").isLazyInit()).isFalse();
+        assertThat(beanFactory.getBeanDefinition("userSearchIndex").isLazyInit()).isFalse();
+    }
+
+    @Test
+    void prodProfile_ShouldNotServeApiDocsOrH2Console() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/v3/api-docs")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/h2-console")).andExpect(status().isNotFound());
+    }
+}
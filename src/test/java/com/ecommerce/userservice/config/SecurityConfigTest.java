@@ -2,17 +2,27 @@ package com.ecommerce.userservice.config;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
+@AutoConfigureMockMvc
 @ActiveProfiles("test")
 public class SecurityConfigTest {
 
+    @Autowired
+    private MockMvc mockMvc;
+
     @Autowired
     private SecurityConfig securityConfig;
 
@@ -46,4 +56,13 @@ public class SecurityConfigTest {
         SecurityFilterChain filterChain = securityConfig.filterChain(null);
         assertThat(filterChain).isNotNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    void actuator_ShouldOnlyLetAnonymousCallersReachHealth() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/sqlstats")).andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/actuator/sqlstats")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/sqlstats").with(user("operator"))).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.userservice.config;
+
+import com.ecommerce.userservice.event.UsersBulkLoadedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SyntheticUserGeneratorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private SyntheticUserGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(generator, "userCount", 7L);
+        ReflectionTestUtils.setField(generator, "randomSeed", 42L);
+        ReflectionTestUtils.setField(generator, "password", "password123");
+        ReflectionTestUtils.setField(generator, "passwordPoolSize", 2);
+        ReflectionTestUtils.setField(generator, "batchSize", 3);
+        ReflectionTestUtils.setField(generator, "nameSkew", 2.0);
+        ReflectionTestUtils.setField(generator, "addressRatio", 0.8);
+        ReflectionTestUtils.setField(generator, "phoneRatio", 0.6);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void start_ShouldInsertInBatchesWithPooledHashes() {
+        // Given
+        when(passwordEncoder.encode("password123")).thenReturn("hash-a", "hash-b");
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+
+        // When
+        generator.start();
+
+        // Then
+        verify(passwordEncoder, times(2)).encode("password123");
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(3, 3, 1);
+        assertThat(batches.getAllValues().get(0)).extracting(row -> row[2]).containsExactly("hash-a", "hash-b", "hash-a");
+        verify(eventPublisher).publishEvent(any(UsersBulkLoadedEvent.class));
+        assertThat(generator.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(generator.health().getDetails()).containsEntry("inserted", 7L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void start_WithSameSeed_ShouldGenerateSameUsers() {
+        // Given
+        when(passwordEncoder.encode(anyString())).thenReturn("hash");
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+
+        // When
+        generator.start();
+        generator.start();
+
+        // Then
+        verify(jdbcTemplate, times(6)).batchUpdate(anyString(), batches.capture());
+        List<String> usernames = new ArrayList<>();
+        for (List<Object[]> batch : batches.getAllValues()) {
+            batch.forEach(row -> usernames.add((String) row[0]));
+        }
+        assertThat(usernames.subList(0, 7)).isEqualTo(usernames.subList(7, 14)).doesNotHaveDuplicates();
+        assertThat(usernames.get(0)).matches("[a-z]+\\.[a-z]+\\.0");
+    }
+
+    @Test
+    void start_WithZeroUsers_ShouldDoNothing() {
+        // Given
+        ReflectionTestUtils.setField(generator, "userCount", 0L);
+
+        // When
+        generator.start();
+
+        // Then
+        verifyNoInteractions(jdbcTemplate, passwordEncoder, eventPublisher);
+        assertThat(generator.health().getStatus()).isEqualTo(Status.UP);
+    }
+}
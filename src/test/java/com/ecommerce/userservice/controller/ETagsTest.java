@@ -0,0 +1,46 @@
+package com.ecommerce.userservice.controller;
+
+import com.ecommerce.userservice.codec.UserWireFormat;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ETagsTest {
+
+    @Test
+    void of_ShouldQuoteVersion() {
+        assertThat(ETags.of(7L)).isEqualTo("\"7\"");
+        assertThat(ETags.of(null)).isEqualTo("\"0\"");
+    }
+
+    @Test
+    void of_WithBinaryFormat_ShouldDistinguishRepresentation() {
+        assertThat(ETags.of(7L, UserWireFormat.JSON)).isEqualTo("\"7\"");
+        assertThat(ETags.of(7L, UserWireFormat.CBOR)).isEqualTo("\"7-cbor\"");
+        assertThat(ETags.parseIfMatch("\"7-cbor\"")).isEqualTo(7L);
+    }
+
+    @Test
+    void matchesIfNoneMatch_ShouldUseWeakComparison() {
+        assertThat(ETags.matchesIfNoneMatch("\"7\"", "\"7\"")).isTrue();
+        assertThat(ETags.matchesIfNoneMatch("W/\"7\"", "\"7\"")).isTrue();
+        assertThat(ETags.matchesIfNoneMatch("\"6\", \"7\"", "\"7\"")).isTrue();
+        assertThat(ETags.matchesIfNoneMatch("*", "\"7\"")).isTrue();
+        assertThat(ETags.matchesIfNoneMatch("\"6\"", "\"7\"")).isFalse();
+        assertThat(ETags.matchesIfNoneMatch(null, "\"7\"")).isFalse();
+    }
+
+    @Test
+    void parseIfMatch_ShouldReturnExpectedVersion() {
+        assertThat(ETags.parseIfMatch("\"7\"")).isEqualTo(7L);
+        assertThat(ETags.parseIfMatch("*")).isNull();
+    }
+
+    @Test
+    void parseIfMatch_WithWeakOrMalformedTag_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> ETags.parseIfMatch("W/\"7\""));
+        assertThrows(IllegalArgumentException.class, () -> ETags.parseIfMatch("\"abc\""));
+        assertThrows(IllegalArgumentException.class, () -> ETags.parseIfMatch("7"));
+    }
+}
@@ -1,6 +1,15 @@
 package com.ecommerce.userservice.controller;
 
+import com.ecommerce.userservice.bitmap.UserIdBitmap;
+import com.ecommerce.userservice.cache.UserResponseCache;
+import com.ecommerce.userservice.idempotency.IdempotencyStore;
 import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserPatchResult;
+import com.ecommerce.userservice.outbox.UserChangeStream;
+import com.ecommerce.userservice.ratelimit.LoginRateLimiter;
+import com.ecommerce.userservice.search.UserSearchIndex;
+import com.ecommerce.userservice.service.UserBatchUpdateService;
+import com.ecommerce.userservice.service.UserExportService;
 import com.ecommerce.userservice.service.UserService;
 import com.ecommerce.userservice.telemetry.TelemetryClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -10,21 +19,30 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
+@Import({UserResponseCache.class, IdempotencyStore.class})
 @ActiveProfiles("test")
 public class UserControllerTest {
 
@@ -37,9 +55,30 @@ public class UserControllerTest {
     @MockBean
     private TelemetryClient telemetryClient;
 
+    @MockBean
+    private LoginRateLimiter loginRateLimiter;
+
+    @MockBean
+    private UserChangeStream changeStream;
+
+    @MockBean
+    private UserSearchIndex searchIndex;
+
+    @MockBean
+    private UserExportService exportService;
+
+    @MockBean
+    private UserBatchUpdateService batchUpdateService;
+
+    @MockBean
+    private UserIdBitmap idBitmap;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private UserResponseCache responseCache;
+
     private User testUser;
 
     @BeforeEach
@@ -53,11 +92,14 @@ public class UserControllerTest {
         testUser.setPassword("encodedPassword");
         testUser.setAddress("123 Test St");
         testUser.setPhoneNumber("+1-555-0101");
+        testUser.setVersion(3L);
+        responseCache.clear();
 
         // Mock telemetry client to prevent null pointer exceptions
         when(telemetryClient.startTrace(anyString(), anyString(), anyString(), anyString())).thenReturn("trace-123");
         doNothing().when(telemetryClient).finishTrace(anyString(), anyInt(), anyString());
         doNothing().when(telemetryClient).logEvent(anyString(), anyString());
+        when(loginRateLimiter.tryAcquire(any(), any())).thenReturn(true);
     }
 
     @Test
@@ -109,6 +151,112 @@ public class UserControllerTest {
         verify(telemetryClient).finishTrace(eq("register_user"), eq(500), eq("Registration failed"));
     }
 
+    @Test
+    @WithMockUser
+    void registerUser_RetryWithSameIdempotencyKey_ShouldReplayWithoutRegisteringAgain() throws Exception {
+        // Given
+        User newUser = new User();
+        newUser.setUsername("newuser");
+        newUser.setEmail("new@example.com");
+        newUser.setPassword("password123");
+
+        when(userService.registerUser(any(User.class))).thenReturn(testUser);
+
+        // When
+        mockMvc.perform(post("/api/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyStore.KEY_HEADER, "register-retry-1")
+                .content(objectMapper.writeValueAsString(newUser))
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyStore.REPLAYED_HEADER));
+
+        // Then
+        mockMvc.perform(post("/api/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyStore.KEY_HEADER, "register-retry-1")
+                .content(objectMapper.writeValueAsString(newUser))
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyStore.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.username").value("testuser"));
+
+        verify(userService, times(1)).registerUser(any(User.class));
+        verify(telemetryClient, times(2)).finishTrace(eq("register_user"), eq(200), isNull());
+    }
+
+    @Test
+    @WithMockUser
+    void registerUser_ReusedIdempotencyKeyWithOtherBody_ShouldReturnUnprocessableEntity() throws Exception {
+        // Given
+        User newUser = new User();
+        newUser.setUsername("newuser");
+        User otherUser = new User();
+        otherUser.setUsername("otheruser");
+
+        when(userService.registerUser(any(User.class))).thenReturn(testUser);
+
+        mockMvc.perform(post("/api/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyStore.KEY_HEADER, "register-reused-1")
+                .content(objectMapper.writeValueAsString(newUser))
+                .with(csrf()))
+                .andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(post("/api/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyStore.KEY_HEADER, "register-reused-1")
+                .content(objectMapper.writeValueAsString(otherUser))
+                .with(csrf()))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(userService, times(1)).registerUser(any(User.class));
+        verify(telemetryClient).finishTrace(eq("register_user"), eq(422), isNull());
+    }
+
+    @Test
+    void registerUser_SameIdempotencyKeyFromOtherCaller_ShouldRegisterAgain() throws Exception {
+        // Given
+        User newUser = new User();
+        newUser.setUsername("newuser");
+
+        when(userService.registerUser(any(User.class))).thenReturn(testUser);
+
+        // When
+        for (String caller : List.of("alice", "bob")) {
+            mockMvc.perform(post("/api/users/register")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(IdempotencyStore.KEY_HEADER, "register-shared-1")
+                    .content(objectMapper.writeValueAsString(newUser))
+                    .with(user(caller))
+                    .with(csrf()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(IdempotencyStore.REPLAYED_HEADER));
+        }
+
+        // Then
+        verify(userService, times(2)).registerUser(any(User.class));
+    }
+
+    @Test
+    @WithMockUser
+    void registerUser_WithOversizedIdempotencyKey_ShouldReturnBadRequest() throws Exception {
+        // Given
+        User newUser = new User();
+        newUser.setUsername("newuser");
+
+        // When & Then
+        mockMvc.perform(post("/api/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyStore.KEY_HEADER, "k".repeat(256))
+                .content(objectMapper.writeValueAsString(newUser))
+                .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).registerUser(any(User.class));
+    }
+
     @Test
     @WithMockUser
     void loginUser_ShouldReturnToken() throws Exception {
@@ -130,6 +278,27 @@ public class UserControllerTest {
         verify(userService).authenticateUser("testuser", "password123");
     }
 
+    @Test
+    @WithMockUser
+    void loginUser_WhenRateLimited_ShouldReturnTooManyRequestsWithoutAuthenticating() throws Exception {
+        // Given
+        UserController.LoginRequest loginRequest = new UserController.LoginRequest();
+        loginRequest.setUsername("testuser");
+        loginRequest.setPassword("password123");
+
+        when(loginRateLimiter.tryAcquire(eq("testuser"), anyString())).thenReturn(false);
+
+        // When & Then
+        mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest))
+                .with(csrf()))
+                .andExpect(status().isTooManyRequests());
+
+        verify(userService, never()).authenticateUser(anyString(), anyString());
+        verify(telemetryClient).finishTrace(eq("login_user"), eq(429), anyString());
+    }
+
     @Test
     @WithMockUser
     void getUserById_ShouldReturnUser() throws Exception {
@@ -147,6 +316,223 @@ public class UserControllerTest {
         verify(telemetryClient).finishTrace(eq("get_user"), eq(200), isNull());
     }
 
+    @Test
+    @WithMockUser
+    void getUserById_WhenCached_ShouldNotCallService() throws Exception {
+        // Given
+        when(userService.getUserById(1L)).thenReturn(testUser);
+        mockMvc.perform(get("/api/users/1")).andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.username").value("testuser"));
+
+        verify(userService, times(1)).getUserById(1L);
+    }
+
+    @Test
+    @WithMockUser
+    void getUserById_WithCborAccept_ShouldReturnCbor() throws Exception {
+        // Given
+        when(userService.getUserById(1L)).thenReturn(testUser);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1").header("Accept", "application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().string("ETag", "\"3-cbor\""))
+                // CORS adds its own Vary values, so check membership rather than the whole header
+                .andExpect(result -> assertThat(result.getResponse().getHeaders("Vary").stream()
+                        .flatMap(value -> Arrays.stream(value.split(",")))
+                        .map(String::trim))
+                        .contains("Accept"));
+    }
+
+    @Test
+    @WithMockUser
+    void getUserById_WithUnsupportedAccept_ShouldReturnNotAcceptable() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/users/1").header("Accept", "application/xml"))
+                .andExpect(status().isNotAcceptable());
+
+        verify(userService, never()).getUserById(anyLong());
+    }
+
+    @Test
+    @WithMockUser
+    void getUserById_ShouldReturnVersionETag() throws Exception {
+        // Given
+        when(userService.getUserById(1L)).thenReturn(testUser);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    @WithMockUser
+    void getUserById_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        // Given
+        when(userService.getUserById(1L)).thenReturn(testUser);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(telemetryClient).finishTrace(eq("get_user"), eq(304), isNull());
+    }
+
+    @Test
+    @WithMockUser
+    void getUserById_ShouldNotExposePasswordHash() throws Exception {
+        // Given
+        when(userService.getUserById(1L)).thenReturn(testUser);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void getUserById_WithFields_ShouldReturnProjection() throws Exception {
+        // Given
+        when(userService.getUserFieldsById(1L, List.of("id", "email")))
+                .thenReturn(Map.of("id", 1L, "email", "test@example.com"));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1").param("fields", "id,email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("test@example.com"))
+                .andExpect(jsonPath("$.username").doesNotExist());
+
+        verify(userService, never()).getUserById(anyLong());
+    }
+
+    @Test
+    @WithMockUser
+    void searchUsers_ShouldReturnMatchesFromIndex() throws Exception {
+        // Given
+        when(searchIndex.search("te", 5))
+                .thenReturn(List.of(Map.of("id", 1L, "username", "testuser")));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/search").param("prefix", "te").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].username").value("testuser"));
+
+        verify(userService, never()).getAllUsers();
+        verify(telemetryClient).finishTrace("search_users", 200, null);
+    }
+
+    @Test
+    @WithMockUser
+    void getUserIdBitmap_WithSince_ShouldReturnDeltaWithVersionHeaders() throws Exception {
+        // Given
+        UserIdBitmap real = new UserIdBitmap();
+        real.add(1L);
+        String since = real.version();
+        real.add(2L);
+        when(idBitmap.version()).thenReturn(real.version());
+        when(idBitmap.since(since)).thenReturn(real.since(since));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/ids/bitmap").param("since", since))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(header().string("ETag", "\"" + real.version() + "\""))
+                .andExpect(header().string("Bitmap-Version", real.version()))
+                .andExpect(header().string("Bitmap-Delta", "true"));
+
+        verify(telemetryClient).finishTrace(eq("get_user_id_bitmap"), eq(200), isNull());
+    }
+
+    @Test
+    @WithMockUser
+    void getUserIdBitmap_WithCurrentETag_ShouldReturnNotModified() throws Exception {
+        // Given
+        when(idBitmap.version()).thenReturn("abc-3");
+
+        // When & Then
+        mockMvc.perform(get("/api/users/ids/bitmap").header("If-None-Match", "\"abc-3\""))
+                .andExpect(status().isNotModified());
+
+        verify(idBitmap, never()).since(any());
+    }
+
+    @Test
+    @WithMockUser
+    void exportUsers_ShouldStreamCsvAttachment() throws Exception {
+        // Given
+        when(exportService.exportCsv(any())).thenAnswer(invocation -> {
+            Writer writer = invocation.getArgument(0);
+            writer.write("id,username\r\n1,testuser\r\n");
+            return 1L;
+        });
+
+        // When & Then
+        mockMvc.perform(get("/api/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""))
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().string("id,username\r\n1,testuser\r\n"));
+
+        verify(telemetryClient).finishTrace("export_users", 200, null);
+    }
+
+    @Test
+    @WithMockUser
+    void exportUsers_WithGzip_ShouldCompressBody() throws Exception {
+        // Given
+        when(exportService.exportCsv(any())).thenAnswer(invocation -> {
+            Writer writer = invocation.getArgument(0);
+            writer.write("id,username\r\n1,testuser\r\n");
+            return 1L;
+        });
+
+        // When
+        byte[] body = mockMvc.perform(get("/api/users/export").param("gzip", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("id,username\r\n1,testuser\r\n");
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void getUserById_WithPasswordField_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/users/1").param("fields", "id,password"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).getUserFieldsById(anyLong(), anyList());
+        verify(telemetryClient).finishTrace(eq("get_user"), eq(400), anyString());
+    }
+
+    @Test
+    @WithMockUser
+    void getAllUsers_WithEmptyFields_ShouldUseDefaultView() throws Exception {
+        // Given
+        when(userService.getAllUserFields(List.of("id", "username", "email")))
+                .thenReturn(List.of(Map.of("id", 1L, "username", "testuser", "email", "test@example.com")));
+
+        // When & Then
+        mockMvc.perform(get("/api/users").param("fields", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].username").value("testuser"));
+
+        verify(userService, never()).getAllUsers();
+    }
+
     @Test
     @WithMockUser
     void getUserById_ShouldHandleNotFound() throws Exception {
@@ -188,7 +574,7 @@ public class UserControllerTest {
         updatedUser.setUsername("updateduser");
         updatedUser.setEmail("updated@example.com");
 
-        when(userService.updateUser(eq(1L), any(User.class))).thenReturn(updatedUser);
+        when(userService.updateUser(eq(1L), any(User.class), isNull())).thenReturn(updatedUser);
 
         // When & Then
         mockMvc.perform(put("/api/users/1")
@@ -198,7 +584,166 @@ public class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.username").value("updateduser"));
 
-        verify(userService).updateUser(eq(1L), any(User.class));
+        verify(userService).updateUser(eq(1L), any(User.class), isNull());
+    }
+
+    @Test
+    @WithMockUser
+    void updateUser_WithIdempotencyKeyAndNoIfMatch_ShouldUpdateOnceAndReplay() throws Exception {
+        // Given
+        User updatedUser = new User();
+        updatedUser.setId(1L);
+        updatedUser.setUsername("updateduser");
+        updatedUser.setVersion(1L);
+
+        when(userService.updateUser(eq(1L), any(User.class), isNull())).thenReturn(updatedUser);
+
+        // When
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(put("/api/users/1")
+                    .header(IdempotencyStore.KEY_HEADER, "update-no-if-match-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(updatedUser))
+                    .with(csrf()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.username").value("updateduser"));
+        }
+
+        // Then
+        verify(userService, times(1)).updateUser(eq(1L), any(User.class), isNull());
+    }
+
+    @Test
+    @WithMockUser
+    void updateUser_WithMatchingIfMatch_ShouldPassExpectedVersionAndReturnNewETag() throws Exception {
+        // Given
+        User updatedUser = new User();
+        updatedUser.setId(1L);
+        updatedUser.setUsername("testuser");
+        updatedUser.setVersion(4L);
+
+        when(userService.updateUser(eq(1L), any(User.class), eq(3L))).thenReturn(updatedUser);
+
+        // When & Then
+        mockMvc.perform(put("/api/users/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedUser))
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    @WithMockUser
+    void updateUser_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        // Given
+        when(userService.updateUser(eq(1L), any(User.class), eq(2L)))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+
+        // When & Then
+        mockMvc.perform(put("/api/users/1")
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testUser))
+                .with(csrf()))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(telemetryClient).finishTrace(eq("update_user"), eq(412), eq("stale"));
+    }
+
+    @Test
+    @WithMockUser
+    void patchUser_ShouldReturnNoContent() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/api/users/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"phoneNumber\":\"+1-555-0199\"}")
+                .with(csrf()))
+                .andExpect(status().isNoContent());
+
+        verify(userService).patchUser(1L, Map.of("phoneNumber", "+1-555-0199"));
+        verify(telemetryClient).finishTrace(eq("patch_user"), eq(204), isNull());
+    }
+
+    @Test
+    @WithMockUser
+    void patchUser_WithImmutableField_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/api/users/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"hijack\"}")
+                .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).patchUser(anyLong(), anyMap());
+    }
+
+    @Test
+    @WithMockUser
+    void batchUpdateUsers_ShouldReturnPerItemResultsUnderOneTrace() throws Exception {
+        // Given
+        when(batchUpdateService.updateAll(anyList())).thenReturn(List.of(
+            UserPatchResult.updated(1L),
+            new UserPatchResult(2L, UserPatchResult.Status.NOT_FOUND, "User not found")));
+
+        // When & Then
+        mockMvc.perform(put("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"id\":1,\"changes\":{\"firstName\":\"Ann\"}},{\"id\":2,\"changes\":{\"lastName\":\"Lee\"},\"version\":3}]")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[0].message").doesNotExist())
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+
+        verify(telemetryClient, times(1)).startTrace(eq("batch_update_users"), eq("PUT"), anyString(), isNull());
+        verify(telemetryClient).finishTrace(eq("batch_update_users"), eq(200), isNull());
+        verify(userService, never()).updateUser(anyLong(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void batchUpdateUsers_WithOversizedBatch_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(batchUpdateService.updateAll(anyList())).thenThrow(new IllegalArgumentException("Batch exceeds 10000 updates"));
+
+        // When & Then
+        mockMvc.perform(put("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"id\":1,\"changes\":{\"firstName\":\"Ann\"}}]")
+                .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(telemetryClient).finishTrace(eq("batch_update_users"), eq(400), anyString());
+    }
+
+    @Test
+    @WithMockUser
+    void streamChanges_ShouldResumeFromLastEventId() throws Exception {
+        // Given
+        when(changeStream.subscribe(42L, 100, true)).thenReturn(new org.springframework.web.servlet.mvc.method.annotation.SseEmitter());
+
+        // When & Then
+        mockMvc.perform(get("/api/users/changes")
+                .header("Accept", "text/event-stream")
+                .header("Last-Event-ID", "42"))
+                .andExpect(status().isOk());
+
+        verify(changeStream).subscribe(42L, 100, true);
+    }
+
+    @Test
+    @WithMockUser
+    void streamChanges_WhenSubscriberLimitReached_ShouldReturnServiceUnavailable() throws Exception {
+        // Given
+        when(changeStream.subscribe(anyLong(), anyInt(), anyBoolean())).thenReturn(null);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/changes").param("after", "7"))
+                .andExpect(status().isServiceUnavailable());
+
+        verify(changeStream).subscribe(7L, 100, false);
     }
 
     @Test
@@ -0,0 +1,141 @@
+package com.ecommerce.userservice.datasource;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTx;
+    private TransactionTemplate readTx;
+    private ReadYourWritesTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("rw_primary");
+        DataSource replica = h2("rw_replica");
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(routing);
+        writeTx = new TransactionTemplate(txManager);
+        readTx = new TransactionTemplate(txManager);
+        readTx.setReadOnly(true);
+
+        tracker = new ReadYourWritesTracker();
+        ReflectionTestUtils.setField(tracker, "windowMs", 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadWriteRoutingDataSource.unpin();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplica() {
+        String source = readTx.execute(status -> whoAmI());
+
+        assertThat(source).isEqualTo("rw_replica");
+    }
+
+    @Test
+    void readWriteTransaction_ShouldUsePrimary() {
+        String source = writeTx.execute(status -> whoAmI());
+
+        assertThat(source).isEqualTo("rw_primary");
+    }
+
+    @Test
+    void recentlyWrittenUser_ShouldBePinnedToPrimaryInsideReadOnlyTransaction() {
+        // Given
+        tracker.recordWrite(42L, "pinned_user");
+
+        // When
+        String byId = readTx.execute(status -> {
+            try (ReadYourWritesTracker.Scope ignored = tracker.routeReadsFor(42L)) {
+                return whoAmI();
+            }
+        });
+        String other = readTx.execute(status -> {
+            try (ReadYourWritesTracker.Scope ignored = tracker.routeReadsFor(7L)) {
+                return whoAmI();
+            }
+        });
+
+        // Then
+        assertThat(byId).isEqualTo("rw_primary");
+        assertThat(other).isEqualTo("rw_replica");
+        assertThat(ReadWriteRoutingDataSource.currentRoute()).isEqualTo(ReadWriteRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    void nestedScope_WhenClosed_ShouldKeepOuterPin() {
+        // Given
+        tracker.recordWrite(42L, "pinned_user");
+
+        // When
+        String afterInner = readTx.execute(status -> {
+            try (ReadYourWritesTracker.Scope outer = tracker.routeReadsFor(42L)) {
+                try (ReadYourWritesTracker.Scope inner = tracker.routeReadsFor("pinned_user")) {
+                    whoAmI();
+                }
+                return whoAmI();
+            }
+        });
+        String afterOuter = readTx.execute(status -> whoAmI());
+
+        // Then
+        assertThat(afterInner).isEqualTo("rw_primary");
+        assertThat(afterOuter).isEqualTo("rw_replica");
+    }
+
+    @Test
+    void writeInsideTransaction_ShouldStartWindowOnlyAfterCommit() {
+        // Given
+        ReflectionTestUtils.setField(tracker, "windowMs", 200L);
+
+        // When
+        writeTx.executeWithoutResult(status -> {
+            tracker.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, 42L, "pinned_user", Map.of()));
+            assertThat(tracker.isRecentlyWritten(42L)).isFalse();
+            sleep(300);
+        });
+
+        // Then
+        assertThat(tracker.isRecentlyWritten(42L)).isTrue();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String whoAmI() {
+        return jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(32))");
+        jdbc.execute("DELETE FROM whoami");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,200 @@
+package com.ecommerce.userservice.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IdempotencyStoreTest {
+
+    private IdempotencyStore idempotencyStore;
+    private AtomicInteger runs;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore();
+        ReflectionTestUtils.setField(idempotencyStore, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(idempotencyStore, "maxEntries", 100);
+        ReflectionTestUtils.setField(idempotencyStore, "waitTimeoutMs", 5000L);
+        runs = new AtomicInteger();
+    }
+
+    @Test
+    void execute_WithSameKey_ShouldRunOnceAndReplayResponse() {
+        // Given
+        ResponseEntity<String> first = idempotencyStore.execute("key-1", "register_user", "body", () -> created("alice"));
+
+        // When
+        ResponseEntity<String> retry = idempotencyStore.execute("key-1", "register_user", "body", () -> created("other"));
+
+        // Then
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(first.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getBody()).isEqualTo("alice");
+        assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void execute_WithSameKeyInOtherScope_ShouldRunAgain() {
+        // When
+        idempotencyStore.execute("key-1", "update_user:1", "body", () -> created("one"));
+        ResponseEntity<String> other = idempotencyStore.execute("key-1", "update_user:2", "body", () -> created("two"));
+
+        // Then
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(other.getBody()).isEqualTo("two");
+    }
+
+    @Test
+    void execute_WithSameKeyAndDifferentBody_ShouldReturnUnprocessableEntity() {
+        // Given
+        idempotencyStore.execute("key-1", "register_user", "body", () -> created("alice"));
+
+        // When
+        ResponseEntity<String> reused = idempotencyStore.execute("key-1", "register_user", "other body", () -> created("bob"));
+
+        // Then
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void fingerprint_ShouldNotLetAdjacentPartsRunTogether() {
+        // When & Then
+        assertThat(IdempotencyStore.fingerprint("ab", "c")).isNotEqualTo(IdempotencyStore.fingerprint("a", "bc"));
+        assertThat(IdempotencyStore.fingerprint("a", null)).isNotEqualTo(IdempotencyStore.fingerprint("a", ""));
+        assertThat(IdempotencyStore.fingerprint("a", 1L)).isEqualTo(IdempotencyStore.fingerprint("a", 1L));
+    }
+
+    @Test
+    void execute_WithoutKey_ShouldAlwaysRun() {
+        // When
+        idempotencyStore.execute(null, "register_user", null, () -> created("a"));
+        idempotencyStore.execute(null, "register_user", null, () -> created("a"));
+
+        // Then
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(idempotencyStore.size()).isZero();
+    }
+
+    @Test
+    void execute_AfterFailure_ShouldLetTheRetryRun() {
+        // Given
+        assertThatThrownBy(() -> idempotencyStore.execute("key-1", "register_user", "body", () -> {
+            throw new RuntimeException("Registration failed");
+        })).hasMessage("Registration failed");
+        idempotencyStore.execute("key-2", "register_user", "body", () -> ResponseEntity.<String>status(HttpStatus.CONFLICT).build());
+
+        // When
+        ResponseEntity<String> retry = idempotencyStore.execute("key-1", "register_user", "body", () -> created("alice"));
+        ResponseEntity<String> conflictRetry = idempotencyStore.execute("key-2", "register_user", "body", () -> created("bob"));
+
+        // Then
+        assertThat(retry.getBody()).isEqualTo("alice");
+        assertThat(conflictRetry.getBody()).isEqualTo("bob");
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    @Test
+    void execute_ConcurrentDuplicate_ShouldWaitForOriginal() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<String>> original = CompletableFuture.supplyAsync(() ->
+            idempotencyStore.execute("key-1", "register_user", "body", () -> {
+                started.countDown();
+                await(release);
+                return created("alice");
+            }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        CompletableFuture<ResponseEntity<String>> duplicate = CompletableFuture.supplyAsync(() ->
+            idempotencyStore.execute("key-1", "register_user", "body", () -> created("twice")));
+        Thread.sleep(50);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        // Then
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getBody()).isEqualTo("alice");
+        assertThat(duplicate.get().getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(original.get(5, TimeUnit.SECONDS).getBody()).isEqualTo("alice");
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_WhenOriginalOutlastsWaitTimeout_ShouldReturnConflict() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(idempotencyStore, "waitTimeoutMs", 10L);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture.runAsync(() -> idempotencyStore.execute("key-1", "register_user", "body", () -> {
+            started.countDown();
+            await(release);
+            return created("alice");
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        ResponseEntity<String> duplicate = idempotencyStore.execute("key-1", "register_user", "body", () -> created("twice"));
+        release.countDown();
+
+        // Then
+        assertThat(duplicate.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(duplicate.getHeaders().getFirst("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    void execute_WhenFull_ShouldStayBounded() {
+        // Given
+        ReflectionTestUtils.setField(idempotencyStore, "maxEntries", 10);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            idempotencyStore.execute("key-" + i, "register_user", "body", () -> created("user"));
+        }
+
+        // Then
+        assertThat(idempotencyStore.size()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void bindTo_ShouldCountExecutedAndReplayed() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        idempotencyStore.bindTo(registry);
+
+        // When
+        idempotencyStore.execute("key-1", "register_user", "body", () -> created("alice"));
+        idempotencyStore.execute("key-1", "register_user", "body", () -> created("alice"));
+
+        // Then
+        assertThat(registry.get("idempotency.requests").tag("result", "executed").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("idempotency.requests").tag("result", "replayed").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("idempotency.entries").gauge().value()).isEqualTo(1.0);
+    }
+
+    private ResponseEntity<String> created(String body) {
+        runs.incrementAndGet();
+        return ResponseEntity.ok(body);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.userservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UserFieldsTest {
+
+    @Test
+    void parse_WithBlankValue_ShouldReturnDefaultView() {
+        assertThat(UserFields.parse("")).isEqualTo(UserFields.DEFAULT);
+        assertThat(UserFields.parse(null)).isEqualTo(UserFields.DEFAULT);
+        assertThat(UserFields.parse(" , ")).isEqualTo(UserFields.DEFAULT);
+    }
+
+    @Test
+    void parse_ShouldPreserveOrderAndDropDuplicates() {
+        assertThat(UserFields.parse("email, id,email")).isEqualTo(List.of("email", "id"));
+    }
+
+    @Test
+    void parse_WithPassword_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> UserFields.parse("id,password"));
+    }
+
+    @Test
+    void parse_WithUnknownField_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> UserFields.parse("id,shoeSize"));
+    }
+
+    @Test
+    void validateChanges_WithUpdatableFields_ShouldPass() {
+        Map<String, String> changes = new HashMap<>();
+        changes.put("address", null);
+        changes.put("phoneNumber", "+1-555-0199");
+
+        UserFields.validateChanges(changes);
+    }
+
+    @Test
+    void validateChanges_WithImmutableField_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> UserFields.validateChanges(Map.of("username", "x")));
+        assertThrows(IllegalArgumentException.class, () -> UserFields.validateChanges(Map.of("password", "x")));
+    }
+
+    @Test
+    void validateChanges_WithBlankEmail_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> UserFields.validateChanges(Map.of("email", " ")));
+    }
+
+    @Test
+    void validateChanges_WithNoChanges_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> UserFields.validateChanges(Map.of()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.userservice.outbox;
+
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserChange;
+import com.ecommerce.userservice.repository.UserChangeRepository;
+import com.ecommerce.userservice.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class UserChangeOutboxTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserChangeRepository changeRepository;
+
+    @Autowired
+    private UserChangeOutbox outbox;
+
+    @Test
+    void registerAndPatch_ShouldAppendOutboxRowsInSameTransaction() {
+        // Given
+        String username = "outbox_" + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User(username, username + "@example.com", "password123");
+
+        // When
+        User saved = userService.registerUser(user);
+        userService.patchUser(saved.getId(), Map.of("phoneNumber", "+1-555-0199"));
+
+        // Then
+        List<UserChange> changes = changeRepository.findAll().stream()
+                .filter(change -> change.getUserId().equals(saved.getId()))
+                .toList();
+        assertThat(changes).extracting(UserChange::getType).containsExactly("REGISTERED", "UPDATED");
+        assertThat(changes.get(0).getPayload()).contains(username).doesNotContain("password").doesNotContain("$2a$");
+        assertThat(changes.get(1).getPayload()).isEqualTo("{\"phoneNumber\":\"+1-555-0199\"}");
+    }
+
+    @Test
+    void compact_ShouldDeleteRowsOlderThanRetention() {
+        // Given
+        UserChange old = new UserChange(1L, "UPDATED", "{}");
+        old.setCreatedAt(Instant.now().minusSeconds(7 * 24 * 3600));
+        UserChange recent = changeRepository.save(new UserChange(1L, "UPDATED", "{}"));
+        changeRepository.save(old);
+
+        // When
+        int removed = outbox.compact();
+
+        // Then
+        assertThat(removed).isGreaterThanOrEqualTo(1);
+        assertThat(changeRepository.findById(recent.getId())).isPresent();
+        assertThat(changeRepository.findById(old.getId())).isEmpty();
+    }
+}
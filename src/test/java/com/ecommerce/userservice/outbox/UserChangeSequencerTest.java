@@ -0,0 +1,71 @@
+package com.ecommerce.userservice.outbox;
+
+import com.ecommerce.userservice.model.UserChange;
+import com.ecommerce.userservice.repository.UserChangeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserChangeSequencerTest {
+
+    @Autowired
+    private UserChangeSequencer sequencer;
+
+    @Autowired
+    private UserChangeStream changeStream;
+
+    @Autowired
+    private UserChangeRepository changeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void sequencePending_LateCommitOfLowerId_ShouldStillBeStreamedAfterHigherIds() throws Exception {
+        // Given
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        sequencer.sequencePending();
+        long offset = changeRepository.findMaxSequenceNumber();
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Long> slow = CompletableFuture.supplyAsync(() -> tx.execute(status -> {
+            UserChange change = changeRepository.save(new UserChange(1L, "UPDATED", "{}"));
+            inserted.countDown();
+            await(commit);
+            return change.getId();
+        }));
+        assertThat(inserted.await(5, TimeUnit.SECONDS)).isTrue();
+        Long fastId = tx.execute(status -> changeRepository.save(new UserChange(2L, "UPDATED", "{}")).getId());
+
+        // When
+        List<UserChange> first = changeStream.readBatch(offset, 100);
+        commit.countDown();
+        Long slowId = slow.get(5, TimeUnit.SECONDS);
+        List<UserChange> second = changeStream.readBatch(first.get(first.size() - 1).getSequenceNumber(), 100);
+
+        // Then
+        assertThat(slowId).isLessThan(fastId);
+        assertThat(first).extracting(UserChange::getId).containsExactly(fastId);
+        assertThat(second).extracting(UserChange::getId).containsExactly(slowId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.userservice.outbox;
+
+import com.ecommerce.userservice.model.UserChange;
+import com.ecommerce.userservice.repository.UserChangeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+
+@ExtendWith(MockitoExtension.class)
+public class UserChangeStreamTest {
+
+    @Mock
+    private UserChangeRepository changeRepository;
+
+    @Mock
+    private UserChangeSequencer sequencer;
+
+    @InjectMocks
+    private UserChangeStream changeStream;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(changeStream, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(changeStream, "maxBatchSize", 50);
+        ReflectionTestUtils.setField(changeStream, "maxSubscribers", 1);
+        ReflectionTestUtils.setField(changeStream, "pollIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(changeStream, "timeoutMs", 60_000L);
+    }
+
+    @Test
+    void readBatch_ShouldSequencePendingRowsThenReadByClampedSequenceNumber() {
+        // When
+        changeStream.readBatch(10L, 10_000);
+
+        // Then
+        InOrder order = inOrder(sequencer, changeRepository);
+        order.verify(sequencer).sequencePending();
+        order.verify(changeRepository).findBySequenceNumberGreaterThanOrderBySequenceNumberAsc(
+                eq(10L),
+                argThat((Pageable page) -> page.getPageSize() == 50));
+    }
+
+    @Test
+    void toNdjson_ShouldWriteOneLinePerChangeWithRawPayload() throws Exception {
+        // Given
+        UserChange first = new UserChange(1L, "REGISTERED", "{\"username\":\"alice\"}");
+        first.setId(5L);
+        UserChange second = new UserChange(2L, "UPDATED", "{\"address\":null}");
+        second.setId(6L);
+
+        // When
+        String ndjson = changeStream.toNdjson(List.of(first, second));
+
+        // Then
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"id\":5").contains("\"payload\":{\"username\":\"alice\"}");
+        assertThat(lines[1]).contains("\"type\":\"UPDATED\"");
+    }
+
+    @Test
+    void subscribe_BeyondSubscriberLimit_ShouldReturnNull() {
+        // When
+        ResponseBodyEmitter first = changeStream.subscribe(0L, 10, true);
+        ResponseBodyEmitter second = changeStream.subscribe(0L, 10, false);
+
+        // Then
+        assertThat(first).isNotNull();
+        assertThat(second).isNull();
+        changeStream.shutdown();
+    }
+}
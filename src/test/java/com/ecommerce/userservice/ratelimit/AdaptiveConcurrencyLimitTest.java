@@ -0,0 +1,76 @@
+package com.ecommerce.userservice.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void tryAcquire_AtLimit_ShouldRejectUntilReleased() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 2.0);
+
+        // When & Then
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.rejected()).isEqualTo(1);
+
+        limit.release(0, 2, false);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void release_WithSteadyLatencyUnderLoad_ShouldRaiseLimit() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 100, 2.0);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.release(10 * MILLIS, limit.limit(), true);
+        }
+
+        // Then
+        assertThat(limit.limit()).isGreaterThan(10);
+    }
+
+    @Test
+    void release_WhenLatencyRisesWellAboveBaseline_ShouldLowerLimit() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 4, 100, 2.0);
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire();
+            limit.release(10 * MILLIS, 50, true);
+        }
+        int before = limit.limit();
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire();
+            limit.release(200 * MILLIS, before, true);
+        }
+
+        // Then
+        assertThat(limit.limit()).isLessThan(before);
+        assertThat(limit.limit()).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    void release_WhenMostlyIdle_ShouldNotRaiseLimit() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 100, 2.0);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.release(10 * MILLIS, 1, true);
+        }
+
+        // Then
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecommerce.userservice.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BulkheadInterceptorTest {
+
+    private SimpleMeterRegistry registry;
+    private BulkheadInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        interceptor = new BulkheadInterceptor(registry)
+            .add(new Bulkhead("auth", 1, 0, 0), List.of("SampleController.loginUser"))
+            .add(new Bulkhead("lookup", 10, 0, 0), List.of("SampleController.getUserById"));
+    }
+
+    @Test
+    void preHandle_WhenClassIsFull_ShouldRejectOnlyThatClass() throws Exception {
+        // Given
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("loginUser"))).isTrue();
+
+        // When
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        boolean login = interceptor.preHandle(new MockHttpServletRequest(), rejected, handler("loginUser"));
+        boolean lookup = interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("getUserById"));
+
+        // Then
+        assertThat(login).isFalse();
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(lookup).isTrue();
+        assertThat(registry.get("http.bulkhead.rejected").tags("bulkhead", "auth", "reason", "queue_full").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("http.bulkhead.saturation").tag("bulkhead", "auth").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void afterCompletion_ShouldReleasePermit() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, handler("loginUser"));
+
+        // When
+        interceptor.afterCompletion(request, response, handler("loginUser"), null);
+
+        // Then
+        assertThat(registry.get("http.bulkhead.active").tag("bulkhead", "auth").gauge().value()).isZero();
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("loginUser"))).isTrue();
+    }
+
+    @Test
+    void preHandle_ForUnassignedEndpoint_ShouldPassThrough() throws Exception {
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("updateUser"))).isTrue();
+    }
+
+    @Test
+    void add_EndpointInTwoBulkheads_ShouldFail() {
+        assertThatThrownBy(() -> interceptor.add(new Bulkhead("bulk", 1, 0, 0), List.of("SampleController.getUserById")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void verify_WithUnknownEndpointName_ShouldFail() throws Exception {
+        // Given
+        List<HandlerMethod> mapped = List.of(handler("loginUser"), handler("getUserById"));
+        interceptor.verify(mapped);
+        interceptor.add(new Bulkhead("bulk", 1, 0, 0), List.of("SampleController.getAllUser"));
+
+        // When & Then
+        assertThatThrownBy(() -> interceptor.verify(mapped))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("SampleController.getAllUser");
+    }
+
+    @Test
+    void verify_WithUnassignedHandler_ShouldFail() throws Exception {
+        // Given
+        List<HandlerMethod> mapped = List.of(handler("loginUser"), handler("getUserById"), handler("updateUser"));
+
+        // When & Then
+        assertThatThrownBy(() -> interceptor.verify(mapped))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("SampleController.updateUser");
+    }
+
+    @Test
+    void preHandle_SameMethodNameOnOtherController_ShouldNotUseTheBulkhead() throws Exception {
+        // Given
+        HandlerMethod other = new HandlerMethod(new OtherController(), OtherController.class.getMethod("loginUser"));
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("loginUser"))).isTrue();
+
+        // When
+        boolean admitted = interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), other);
+
+        // Then
+        assertThat(admitted).isTrue();
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new SampleController(), SampleController.class.getMethod(name));
+    }
+
+    static class SampleController {
+        public void loginUser() {
+        }
+
+        public void getUserById() {
+        }
+
+        public void updateUser() {
+        }
+    }
+
+    static class OtherController {
+        public void loginUser() {
+        }
+    }
+}
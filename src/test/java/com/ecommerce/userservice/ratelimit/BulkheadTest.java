@@ -0,0 +1,66 @@
+package com.ecommerce.userservice.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BulkheadTest {
+
+    @Test
+    void tryAcquire_WhenFullAndNoQueue_ShouldRejectAtOnce() {
+        // Given
+        Bulkhead bulkhead = new Bulkhead("auth", 1, 0, 1000);
+        assertThat(bulkhead.tryAcquire()).isTrue();
+
+        // When
+        boolean admitted = bulkhead.tryAcquire();
+
+        // Then
+        assertThat(admitted).isFalse();
+        assertThat(bulkhead.rejectedQueueFull()).isEqualTo(1);
+        assertThat(bulkhead.saturation()).isEqualTo(1.0);
+    }
+
+    @Test
+    void tryAcquire_WhenQueuedLongerThanMaxWait_ShouldTimeOut() {
+        // Given
+        Bulkhead bulkhead = new Bulkhead("bulk", 1, 1, 20);
+        bulkhead.tryAcquire();
+
+        // When
+        boolean admitted = bulkhead.tryAcquire();
+
+        // Then
+        assertThat(admitted).isFalse();
+        assertThat(bulkhead.rejectedTimeout()).isEqualTo(1);
+        assertThat(bulkhead.queued()).isZero();
+    }
+
+    @Test
+    void tryAcquire_WhenPermitFreedWhileQueued_ShouldAdmit() throws Exception {
+        // Given
+        Bulkhead bulkhead = new Bulkhead("lookup", 1, 1, 5000);
+        bulkhead.tryAcquire();
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(bulkhead::tryAcquire);
+        waitUntil(() -> bulkhead.queued() == 1);
+
+        // When
+        bulkhead.release();
+
+        // Then
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(bulkhead.active()).isEqualTo(1);
+        assertThat(bulkhead.queued()).isZero();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
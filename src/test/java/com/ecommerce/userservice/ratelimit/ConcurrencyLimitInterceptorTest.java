@@ -0,0 +1,89 @@
+package com.ecommerce.userservice.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimitInterceptorTest {
+
+    private SimpleMeterRegistry registry;
+    private ConcurrencyLimitInterceptor interceptor;
+    private HandlerMethod handler;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        registry = new SimpleMeterRegistry();
+        interceptor = new ConcurrencyLimitInterceptor(1, 1, 10, 2.0, registry);
+        handler = new HandlerMethod(new SampleController(), SampleController.class.getMethod("getUserById"));
+    }
+
+    @Test
+    void preHandle_OverLimit_ShouldAnswer503Immediately() {
+        // Given
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        assertThat(interceptor.preHandle(first, new MockHttpServletResponse(), handler)).isTrue();
+
+        // When
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        boolean admitted = interceptor.preHandle(new MockHttpServletRequest(), rejected, handler);
+
+        // Then
+        assertThat(admitted).isFalse();
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(registry.get("http.concurrency.rejected").tag("endpoint", "SampleController.getUserById").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("http.concurrency.in_flight").tag("endpoint", "SampleController.getUserById").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void afterCompletion_ShouldFreeTheSlot() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, handler);
+
+        // When
+        interceptor.afterCompletion(request, response, handler, null);
+
+        // Then
+        assertThat(interceptor.limits().get("SampleController.getUserById").inFlight()).isZero();
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler)).isTrue();
+    }
+
+    @Test
+    void preHandle_SameMethodNameOnOtherController_ShouldUseItsOwnLimit() throws NoSuchMethodException {
+        // Given
+        HandlerMethod other = new HandlerMethod(new OtherController(), OtherController.class.getMethod("getUserById"));
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler)).isTrue();
+
+        // When
+        boolean admitted = interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), other);
+
+        // Then
+        assertThat(admitted).isTrue();
+        assertThat(interceptor.limits()).containsOnlyKeys("SampleController.getUserById", "OtherController.getUserById");
+    }
+
+    @Test
+    void preHandle_ForNonControllerHandler_ShouldPassThrough() {
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), new Object())).isTrue();
+        assertThat(interceptor.limits()).isEmpty();
+    }
+
+    static class SampleController {
+        public String getUserById() {
+            return "user";
+        }
+    }
+
+    static class OtherController {
+        public String getUserById() {
+            return "other";
+        }
+    }
+}
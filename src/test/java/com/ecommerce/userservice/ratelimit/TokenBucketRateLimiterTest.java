@@ -0,0 +1,102 @@
+package com.ecommerce.userservice.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TokenBucketRateLimiterTest {
+
+    private AtomicLong clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_000_000_000_000L);
+    }
+
+    @Test
+    void tryAcquire_ShouldAllowBurstUpToCapacity() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 1.0, 1000, 60_000, clock::get);
+
+        // When & Then
+        assertThat(limiter.tryAcquire("alice")).isTrue();
+        assertThat(limiter.tryAcquire("alice")).isTrue();
+        assertThat(limiter.tryAcquire("alice")).isTrue();
+        assertThat(limiter.tryAcquire("alice")).isFalse();
+    }
+
+    @Test
+    void tryAcquire_ShouldRefillOverTime() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 2.0, 1000, 60_000, clock::get);
+        assertThat(limiter.tryAcquire("alice")).isTrue();
+        assertThat(limiter.tryAcquire("alice")).isFalse();
+
+        // When
+        clock.addAndGet(500_000_000L);
+
+        // Then
+        assertThat(limiter.tryAcquire("alice")).isTrue();
+        assertThat(limiter.tryAcquire("alice")).isFalse();
+    }
+
+    @Test
+    void tryAcquire_ShouldTrackKeysIndependently() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1.0, 1000, 60_000, clock::get);
+
+        // When & Then
+        assertThat(limiter.tryAcquire("alice")).isTrue();
+        assertThat(limiter.tryAcquire("alice")).isFalse();
+        assertThat(limiter.tryAcquire("bob")).isTrue();
+    }
+
+    @Test
+    void tryAcquire_ShouldEvictIdleBucketsWhenFull() {
+        // Given - one key per stripe
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1.0, 16, 1_000, clock::get);
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire("user" + i);
+        }
+        assertThat(limiter.trackedKeys()).isLessThanOrEqualTo(16);
+
+        // When
+        clock.addAndGet(10_000_000_000L);
+        limiter.tryAcquire("newcomer");
+
+        // Then
+        assertThat(limiter.trackedKeys()).isLessThanOrEqualTo(16);
+        assertThat(limiter.tryAcquire("fresh")).isTrue();
+    }
+
+    @Test
+    void tryAcquire_WhenKeysAreSprayed_ShouldGiveEachKeyItsOwnBucketAndKeepDrainedOnes() {
+        // Given - four keys per stripe
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1.0, 64, 60_000, clock::get);
+        assertThat(limiter.tryAcquire("victim")).isTrue();
+        assertThat(limiter.tryAcquire("victim")).isTrue();
+
+        // When
+        int admitted = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (limiter.tryAcquire("spray" + i)) {
+                admitted++;
+            }
+        }
+
+        // Then
+        assertThat(admitted).isEqualTo(1_000);
+        assertThat(limiter.trackedKeys()).isLessThanOrEqualTo(64);
+        assertThat(limiter.tryAcquire("victim")).isFalse();
+    }
+
+    @Test
+    void constructor_WithNonPositiveCapacity_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucketRateLimiter(0, 1.0, 100, 1_000));
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserRepositoryCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findById_AfterSave_ShouldBeServedFromSecondLevelCache() {
+        // Given
+        User saved = tx.execute(status -> userRepository.save(newUser()));
+        // IDENTITY inserts are not written to the cache; the first load puts the entity there
+        tx.execute(status -> userRepository.findById(saved.getId()).orElseThrow());
+        statistics.clear();
+
+        // When
+        User found = tx.execute(status -> userRepository.findById(saved.getId()).orElseThrow());
+
+        // Then
+        assertThat(found.getUsername()).isEqualTo(saved.getUsername());
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThanOrEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void findByUsername_AfterSave_ShouldResolveThroughNaturalIdCache() {
+        // Given
+        User saved = tx.execute(status -> userRepository.save(newUser()));
+        tx.execute(status -> userRepository.findByUsername(saved.getUsername()).orElseThrow());
+        statistics.clear();
+
+        // When
+        User found = tx.execute(status -> userRepository.findByUsername(saved.getUsername()).orElseThrow());
+
+        // Then
+        assertThat(found.getId()).isEqualTo(saved.getId());
+        assertThat(statistics.getNaturalIdCacheHitCount()).isGreaterThanOrEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void findByUsername_WithUnknownUsername_ShouldReturnEmpty() {
+        Optional<User> found = tx.execute(status -> userRepository.findByUsername("no_such_user_" + UUID.randomUUID()));
+
+        assertThat(found).isEmpty();
+    }
+
+    private User newUser() {
+        String username = "cache_" + UUID.randomUUID().toString().substring(0, 8);
+        return new User(username, username + "@example.com", "encodedPassword");
+    }
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.userservice.repository;
 
 import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserPatch;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +9,8 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -175,4 +178,119 @@ public class UserRepositoryTest {
         User found = entityManager.find(User.class, userId);
         assertThat(found).isNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByIdCached_ShouldReturnKnownUsersAndSkipUnknownIds() {
+        // Given
+        User saved = entityManager.persistAndFlush(testUser);
+        entityManager.clear();
+
+        // When
+        List<User> found = userRepository.findAllByIdCached(List.of(saved.getId(), 999_999L));
+
+        // Then
+        assertThat(found).extracting(User::getUsername).containsExactly("testuser");
+    }
+
+    @Test
+    void findFieldsById_ShouldReturnOnlyRequestedFields() {
+        // Given
+        User saved = entityManager.persistAndFlush(testUser);
+
+        // When
+        Optional<Map<String, Object>> found = userRepository.findFieldsById(saved.getId(), List.of("username", "email"));
+
+        // Then
+        assertThat(found).isPresent();
+        assertThat(found.get()).containsOnlyKeys("username", "email");
+        assertThat(found.get().get("username")).isEqualTo("testuser");
+        assertThat(found.get().get("email")).isEqualTo("test@example.com");
+    }
+
+    @Test
+    void findFieldsById_WithNonExistentUser_ShouldReturnEmpty() {
+        // When
+        Optional<Map<String, Object>> found = userRepository.findFieldsById(999L, List.of("id"));
+
+        // Then
+        assertThat(found).isEmpty();
+    }
+
+    @Test
+    void findAllFields_ShouldProjectEveryUser() {
+        // Given
+        entityManager.persistAndFlush(testUser);
+
+        // When
+        List<Map<String, Object>> rows = userRepository.findAllFields(List.of("id", "username"));
+
+        // Then
+        assertThat(rows).isNotEmpty();
+        assertThat(rows).allSatisfy(row -> assertThat(row).containsOnlyKeys("id", "username"));
+        assertThat(rows).anySatisfy(row -> assertThat(row.get("username")).isEqualTo("testuser"));
+    }
+
+    @Test
+    void updateFieldsById_ShouldOnlyChangeGivenColumns() {
+        // Given
+        User saved = entityManager.persistAndFlush(testUser);
+        entityManager.clear();
+
+        // When
+        int updated = userRepository.updateFieldsById(saved.getId(), Map.of("address", "1 New Rd"));
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        User found = entityManager.find(User.class, saved.getId());
+        assertThat(found.getAddress()).isEqualTo("1 New Rd");
+        assertThat(found.getPhoneNumber()).isEqualTo("+1-555-0101");
+        assertThat(found.getEmail()).isEqualTo("test@example.com");
+    }
+
+    @Test
+    void updateFieldsById_WithNonExistentUser_ShouldReturnZero() {
+        assertThat(userRepository.updateFieldsById(999L, Map.of("firstName", "Nobody"))).isZero();
+    }
+
+    @Test
+    void updateFieldsInBatch_ShouldApplyEachPatchAndHonourVersions() {
+        // Given
+        User first = entityManager.persistAndFlush(testUser);
+        User second = new User("other", "other@example.com", "encodedPassword");
+        second = entityManager.persistAndFlush(second);
+        entityManager.clear();
+
+        // When
+        int[] updated = userRepository.updateFieldsInBatch(List.of(
+            new UserPatch(first.getId(), Map.of("firstName", "Ann"), null),
+            new UserPatch(second.getId(), Map.of("firstName", "Bob"), null),
+            new UserPatch(999_999L, Map.of("firstName", "Nobody"), null),
+            new UserPatch(first.getId(), Map.of("lastName", "Stale"), 42L)));
+
+        // Then
+        assertThat(updated).containsExactly(1, 1, 0, 0);
+        User found = entityManager.find(User.class, first.getId());
+        assertThat(found.getFirstName()).isEqualTo("Ann");
+        assertThat(found.getLastName()).isEqualTo("User");
+        assertThat(found.getVersion()).isEqualTo(first.getVersion() + 1);
+        assertThat(entityManager.find(User.class, second.getId()).getFirstName()).isEqualTo("Bob");
+    }
+
+    @Test
+    void findExistingIds_ShouldReturnOnlyStoredIds() {
+        // Given
+        User saved = entityManager.persistAndFlush(testUser);
+
+        // When & Then
+        assertThat(userRepository.findExistingIds(List.of(saved.getId(), 999_999L))).containsExactly(saved.getId());
+    }
+
+    @Test
+    void findAllIds_ShouldReturnEveryStoredId() {
+        // Given
+        User saved = entityManager.persistAndFlush(testUser);
+
+        // When & Then
+        assertThat(userRepository.findAllIds()).contains(saved.getId());
+    }
+}
@@ -0,0 +1,98 @@
+package com.ecommerce.userservice.search;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import com.ecommerce.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserSearchIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(searchIndex, "maxResults", 20);
+        ReflectionTestUtils.setField(searchIndex, "rebuildThreshold", 10000);
+        when(userRepository.findAllFields(UserSearchIndex.FIELDS)).thenReturn(List.of(
+                row(1L, "john_doe", "john.doe@example.com", "John", "Doe"),
+                row(2L, "jane_smith", "jane.smith@example.com", "Jane", "Smith"),
+                row(3L, "bob_wilson", "bob.wilson@example.com", "Bob", "Wilson"),
+                row(4L, "alice_jones", "alice.jones@example.com", "Alice", "Johnson")));
+        searchIndex.load();
+    }
+
+    @Test
+    void search_ShouldMatchAnyIndexedFieldCaseInsensitively() {
+        // When
+        List<Map<String, Object>> results = searchIndex.search("JO", 10);
+
+        // Then
+        assertThat(results).extracting(user -> user.get("id")).containsExactly(1L, 4L);
+        assertThat(results.get(0)).containsEntry("username", "john_doe").doesNotContainKey("password");
+    }
+
+    @Test
+    void search_ShouldStopAtLimitAndIgnoreBlankPrefix() {
+        // When & Then
+        assertThat(searchIndex.search("j", 2)).hasSize(2);
+        assertThat(searchIndex.search("  ", 10)).isEmpty();
+        assertThat(searchIndex.search("zz", 10)).isEmpty();
+    }
+
+    @Test
+    void onUserChanged_ShouldIndexNewUsersAndForgetReplacedTerms() {
+        // When
+        searchIndex.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.REGISTERED, 5L, "joanna",
+                row(5L, "joanna", "joanna@example.com", "Joanna", "Kowalski")));
+        searchIndex.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, 1L, null,
+                Map.of("lastName", "Brown")));
+
+        // Then
+        assertThat(searchIndex.search("joa", 10)).extracting(user -> user.get("id")).containsExactly(5L);
+        assertThat(searchIndex.search("brown", 10)).extracting(user -> user.get("lastName")).containsExactly("Brown");
+        assertThat(searchIndex.search("doe", 10)).isEmpty();
+        assertThat(searchIndex.search("john_", 10)).extracting(user -> user.get("id")).containsExactly(1L);
+    }
+
+    @Test
+    void rebuild_ShouldMergePendingTermsIntoSegment() {
+        // Given
+        searchIndex.index(6L, row(6L, "carol", "carol@example.com", "Carol", "White"));
+        assertThat(searchIndex.pendingTerms()).isEqualTo(3);
+
+        // When
+        searchIndex.rebuild();
+
+        // Then
+        assertThat(searchIndex.pendingTerms()).isZero();
+        assertThat(searchIndex.search("car", 10)).extracting(user -> user.get("id")).containsExactly(6L);
+        assertThat(searchIndex.size()).isEqualTo(5);
+    }
+
+    private static Map<String, Object> row(Long id, String username, String email, String firstName, String lastName) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("username", username);
+        row.put("email", email);
+        row.put("firstName", firstName);
+        row.put("lastName", lastName);
+        return row;
+    }
+}
@@ -0,0 +1,117 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.event.UserChangedEvent;
+import com.ecommerce.userservice.model.UserPatch;
+import com.ecommerce.userservice.model.UserPatchResult;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.telemetry.TelemetryClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserBatchUpdateServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TelemetryClient telemetryClient;
+
+    @InjectMocks
+    private UserBatchUpdateService batchUpdateService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(batchUpdateService, "chunkSize", 2);
+        ReflectionTestUtils.setField(batchUpdateService, "maxItems", 10);
+    }
+
+    @Test
+    void updateAll_ShouldReportEachItemInRequestOrder() {
+        // Given
+        List<UserPatch> patches = List.of(
+            new UserPatch(1L, Map.of("firstName", "Ann"), null),
+            new UserPatch(2L, Map.of("username", "hijack"), null),
+            new UserPatch(3L, Map.of("lastName", "Lee"), 4L),
+            new UserPatch(1L, Map.of("lastName", "Again"), null),
+            new UserPatch(4L, Map.of("address", "1 New Rd"), null));
+        when(userRepository.updateFieldsInBatch(anyList())).thenReturn(new int[] { 1, 0 }, new int[] { 0 });
+        when(userRepository.findExistingIds(List.of(3L))).thenReturn(List.of(3L));
+        when(userRepository.findExistingIds(List.of(4L))).thenReturn(List.of());
+
+        // When
+        List<UserPatchResult> results = batchUpdateService.updateAll(patches);
+
+        // Then
+        assertThat(results).extracting(UserPatchResult::getStatus).containsExactly(
+            UserPatchResult.Status.UPDATED,
+            UserPatchResult.Status.INVALID,
+            UserPatchResult.Status.CONFLICT,
+            UserPatchResult.Status.INVALID,
+            UserPatchResult.Status.NOT_FOUND);
+        verify(userRepository, times(2)).updateFieldsInBatch(anyList());
+        verify(eventPublisher, times(1)).publishEvent(any(UserChangedEvent.class));
+        verify(telemetryClient, times(1)).log(eq("INFO"), anyString(), any(), any(), any());
+        verify(telemetryClient, never()).startTrace(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void updateAll_WhenChunkFails_ShouldMarkOnlyThatChunkFailed() {
+        // Given
+        List<UserPatch> patches = List.of(
+            new UserPatch(1L, Map.of("firstName", "Ann"), null),
+            new UserPatch(2L, Map.of("firstName", "Bob"), null),
+            new UserPatch(3L, Map.of("firstName", "Cy"), null));
+        when(userRepository.updateFieldsInBatch(anyList()))
+            .thenThrow(new DataAccessResourceFailureException("connection lost"))
+            .thenReturn(new int[] { 1 });
+
+        // When
+        List<UserPatchResult> results = batchUpdateService.updateAll(patches);
+
+        // Then
+        assertThat(results).extracting(UserPatchResult::getStatus).containsExactly(
+            UserPatchResult.Status.FAILED,
+            UserPatchResult.Status.FAILED,
+            UserPatchResult.Status.UPDATED);
+        verify(transactionManager).rollback(any());
+        verify(telemetryClient).log(eq("ERROR"), anyString(), any(), any(), any());
+    }
+
+    @Test
+    void updateAll_WithTooManyItems_ShouldBeRejected() {
+        // Given
+        List<UserPatch> patches = Collections.nCopies(11, new UserPatch(1L, Map.of("firstName", "Ann"), null));
+
+        // When & Then
+        assertThatThrownBy(() -> batchUpdateService.updateAll(patches))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(userRepository);
+    }
+}
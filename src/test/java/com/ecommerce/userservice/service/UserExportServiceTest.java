@@ -0,0 +1,74 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.telemetry.TelemetryClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(UserExportService.class)
+public class UserExportServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserExportService exportService;
+
+    @MockBean
+    private TelemetryClient telemetryClient;
+
+    @Test
+    void exportCsv_ShouldWriteHeaderAndOneEscapedLinePerUserWithoutPasswords() throws Exception {
+        // Given
+        User john = user("john_doe", "john.doe@example.com", "123 Main St, Anytown");
+        john.setLastName("O\"Neil");
+        entityManager.persist(john);
+        entityManager.persist(user("jane_smith", "jane.smith@example.com", null));
+        entityManager.flush();
+        StringWriter out = new StringWriter();
+
+        // When
+        long rows = exportService.exportCsv(out);
+
+        // Then
+        assertThat(rows).isEqualTo(2);
+        String[] lines = out.toString().split("\r\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).isEqualTo("id,username,email,firstName,lastName,address,phoneNumber");
+        assertThat(lines[1]).isEqualTo(john.getId() + ",john_doe,john.doe@example.com,First,\"O\"\"Neil\",\"123 Main St, Anytown\",+1-555-0101");
+        assertThat(lines[2]).endsWith(",jane_smith,jane.smith@example.com,First,Last,,+1-555-0101");
+        assertThat(out.toString()).doesNotContain("$2a$").doesNotContain("secret-hash");
+    }
+
+    @Test
+    void exportCsv_ShouldDetachExportedUsers() throws Exception {
+        // Given
+        User john = entityManager.persistAndFlush(user("john_doe", "john.doe@example.com", null));
+
+        // When
+        exportService.exportCsv(new StringWriter());
+
+        // Then
+        assertThat(entityManager.getEntityManager().contains(john)).isFalse();
+    }
+
+    private static User user(String username, String email, String address) {
+        User user = new User(username, email, "secret-hash");
+        user.setFirstName("First");
+        user.setLastName("Last");
+        user.setAddress(address);
+        user.setPhoneNumber("+1-555-0101");
+        return user;
+    }
+}
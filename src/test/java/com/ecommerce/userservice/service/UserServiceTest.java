@@ -1,7 +1,13 @@
 package com.ecommerce.userservice.service;
 
+import com.ecommerce.userservice.auth.Credential;
+import com.ecommerce.userservice.auth.CredentialCache;
+import com.ecommerce.userservice.auth.CredentialIndex;
+import com.ecommerce.userservice.datasource.ReadYourWritesTracker;
+import com.ecommerce.userservice.event.UserChangedEvent;
 import com.ecommerce.userservice.model.User;
 import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.sharding.ShardedUserRepository;
 import com.ecommerce.userservice.telemetry.TelemetryClient;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
@@ -10,21 +16,32 @@ import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.crypto.SecretKey;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -40,6 +57,12 @@ public class UserServiceTest {
     @Mock
     private TelemetryClient telemetryClient;
 
+    @Mock
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -83,6 +106,27 @@ public class UserServiceTest {
         verify(userRepository).save(any(User.class));
     }
 
+    @Test
+    void registerUser_ShouldPublishRegisteredEvent() {
+        // Given
+        User newUser = new User();
+        newUser.setUsername("newuser");
+        newUser.setPassword("plainPassword");
+
+        when(passwordEncoder.encode("plainPassword")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+
+        // When
+        userService.registerUser(newUser);
+
+        // Then
+        ArgumentCaptor<UserChangedEvent> event = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(UserChangedEvent.Type.REGISTERED);
+        assertThat(event.getValue().getUserId()).isEqualTo(1L);
+        assertThat(event.getValue().getUsername()).isEqualTo("testuser");
+    }
+
     @Test
     void authenticateUser_WithValidCredentials_ShouldReturnJWT() {
         // Given
@@ -124,6 +168,42 @@ public class UserServiceTest {
         verify(passwordEncoder).matches("wrongPassword", "encodedPassword");
     }
 
+    @Test
+    void authenticateUser_WithCredentialCache_ShouldSkipBCryptOnRepeatLogin() {
+        // Given
+        CredentialCache credentialCache = new CredentialCache();
+        ReflectionTestUtils.setField(credentialCache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(credentialCache, "maxEntries", 100);
+        ReflectionTestUtils.setField(userService, "credentialCache", credentialCache);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches("plainPassword", "encodedPassword")).thenReturn(true);
+
+        // When
+        userService.authenticateUser("testuser", "plainPassword");
+        userService.authenticateUser("testuser", "plainPassword");
+
+        // Then
+        verify(passwordEncoder, times(1)).matches("plainPassword", "encodedPassword");
+    }
+
+    @Test
+    void authenticateUser_WithCredentialIndexHit_ShouldNotQueryRepository() {
+        // Given
+        CredentialIndex credentialIndex = mock(CredentialIndex.class);
+        ReflectionTestUtils.setField(userService, "credentialIndex", credentialIndex);
+        when(credentialIndex.find("testuser")).thenReturn(Optional.of(new Credential(1L, "testuser", "encodedPassword", null)));
+        when(passwordEncoder.matches("plainPassword", "encodedPassword")).thenReturn(true);
+
+        // When
+        String token = userService.authenticateUser("testuser", "plainPassword");
+
+        // Then
+        Claims claims = Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token).getBody();
+        assertThat(claims.getSubject()).isEqualTo("testuser");
+        assertThat(claims.get("userId")).isEqualTo(1);
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void authenticateUser_WithNonExistentUser_ShouldThrowException() {
         // Given
@@ -162,6 +242,68 @@ public class UserServiceTest {
         verify(userRepository).findById(999L);
     }
 
+    @Test
+    void getUserById_WithSharding_ShouldReadFromShards() {
+        // Given
+        ShardedUserRepository shardedUsers = mock(ShardedUserRepository.class);
+        ReflectionTestUtils.setField(userService, "shardedUsers", shardedUsers);
+        when(shardedUsers.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When
+        User result = userService.getUserById(1L);
+
+        // Then
+        assertThat(result.getUsername()).isEqualTo("testuser");
+        verify(shardedUsers).findById(1L);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void registerUser_WithSharding_ShouldSaveToShards() {
+        // Given
+        ShardedUserRepository shardedUsers = mock(ShardedUserRepository.class);
+        ReflectionTestUtils.setField(userService, "shardedUsers", shardedUsers);
+        User newUser = new User();
+        newUser.setUsername("newuser");
+        newUser.setPassword("plainPassword");
+        when(passwordEncoder.encode("plainPassword")).thenReturn("encodedPassword");
+        when(shardedUsers.save(any(User.class))).thenReturn(testUser);
+
+        // When
+        userService.registerUser(newUser);
+
+        // Then
+        verify(shardedUsers).save(newUser);
+        verifyNoInteractions(userRepository);
+        verify(eventPublisher).publishEvent(any(UserChangedEvent.class));
+    }
+
+    @Test
+    void getUserById_ConcurrentMisses_ShouldShareOneRepositoryCall() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(testUser);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        List<Future<User>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> userService.getUserById(1L)));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        // Then
+        for (Future<User> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(testUser);
+        }
+        executor.shutdown();
+        verify(userRepository, times(1)).findById(1L);
+    }
+
     @Test
     void getAllUsers_ShouldReturnAllUsers() {
         // Given
@@ -222,6 +364,45 @@ public class UserServiceTest {
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    void updateUser_WithStaleExpectedVersion_ShouldNotSave() {
+        // Given
+        testUser.setVersion(5L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When & Then
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> userService.updateUser(1L, new User(), 4L));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void patchUser_ShouldIssueTargetedUpdateWithoutLoading() {
+        // Given
+        Map<String, String> changes = Map.of("phoneNumber", "+1-555-0199");
+        when(userRepository.updateFieldsById(1L, changes)).thenReturn(1);
+
+        // When
+        userService.patchUser(1L, changes);
+
+        // Then
+        verify(userRepository).updateFieldsById(1L, changes);
+        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).save(any(User.class));
+        verify(eventPublisher).publishEvent(any(UserChangedEvent.class));
+    }
+
+    @Test
+    void patchUser_WithNonExistentUser_ShouldThrowException() {
+        // Given
+        Map<String, String> changes = Map.of("firstName", "Nobody");
+        when(userRepository.updateFieldsById(999L, changes)).thenReturn(0);
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> userService.patchUser(999L, changes));
+        verify(eventPublisher, never()).publishEvent(any(UserChangedEvent.class));
+    }
+
     @Test
     void validateToken_WithValidToken_ShouldReturnTrue() {
         // Given
@@ -0,0 +1,109 @@
+package com.ecommerce.userservice.sharding;
+
+import com.ecommerce.userservice.model.User;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of {@link ShardedUserRepository} against the number of shards, on in-memory H2.
+ * Not a unit test; run with {@code ./gradlew shardBenchmark [-Pthreads=16 -Pseconds=10 -Pusers=20000]}.
+ *
+ * For each shard count it runs a write phase (registrations) and a read phase (an even mix of id
+ * and username lookups) with the given number of client threads and prints operations per second.
+ */
+public class ShardScalingBenchmark {
+
+    private static final int[] SHARD_COUNTS = { 1, 2, 4, 8 };
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int users = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+
+        System.out.printf("threads=%d seconds=%d users=%d%n", threads, seconds, users);
+        System.out.printf("%-7s %14s %14s%n", "shards", "writes/s", "reads/s");
+        for (int shardCount : SHARD_COUNTS) {
+            try (ShardedUserRepository repository = repository(shardCount, threads)) {
+                repository.createSchema();
+                double writes = writePhase(repository, threads, users);
+                double reads = readPhase(repository, threads, seconds, users);
+                System.out.printf("%-7d %14.0f %14.0f%n", shardCount, writes, reads);
+            }
+        }
+    }
+
+    private static double writePhase(ShardedUserRepository repository, int threads, int users) throws InterruptedException {
+        AtomicLong next = new AtomicLong();
+        long started = System.nanoTime();
+        runConcurrently(threads, () -> {
+            for (long i = next.getAndIncrement(); i < users; i = next.getAndIncrement()) {
+                User user = new User("user" + i, "user" + i + "@example.com", "hash");
+                user.setFirstName("First");
+                user.setLastName("Last");
+                repository.save(user);
+            }
+        });
+        return users / ((System.nanoTime() - started) / 1e9);
+    }
+
+    private static double readPhase(ShardedUserRepository repository, int threads, int seconds, int users) throws InterruptedException {
+        AtomicLong operations = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long started = System.nanoTime();
+        runConcurrently(threads, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long done = 0;
+            while (System.nanoTime() < deadline) {
+                if (random.nextBoolean()) {
+                    repository.findById(1L + random.nextInt(users));
+                } else {
+                    repository.findByUsername("user" + random.nextInt(users));
+                }
+                done++;
+            }
+            operations.addAndGet(done);
+        });
+        return operations.get() / ((System.nanoTime() - started) / 1e9);
+    }
+
+    private static void runConcurrently(int threads, Runnable task) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        CountDownLatch finished = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            clients.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        finished.await();
+        clients.shutdown();
+    }
+
+    private static ShardedUserRepository repository(int shardCount, int threads) {
+        String run = "bench" + shardCount + "_" + System.nanoTime();
+        List<DataSource> shards = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(h2(run + "_shard" + shard));
+        }
+        return new ShardedUserRepository(shards, h2(run + "_directory"), Executors.newFixedThreadPool(threads));
+    }
+
+    private static DataSource h2(String name) {
+        return DataSourceBuilder.create()
+            .url("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1")
+            .username("sa")
+            .password("")
+            .build();
+    }
+}
@@ -0,0 +1,230 @@
+package com.ecommerce.userservice.sharding;
+
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserPatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ShardedUserRepositoryTest {
+
+    private List<DataSource> shards;
+    private ShardedUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        // Unique names so each test starts from empty databases
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        shards = List.of(h2("shard0_" + run), h2("shard1_" + run), h2("shard2_" + run));
+        repository = new ShardedUserRepository(shards, h2("directory_" + run), Executors.newFixedThreadPool(3));
+        repository.createSchema();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    void save_ShouldPlaceEachUserOnItsHashedShard() {
+        // When
+        List<User> saved = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            saved.add(repository.save(user("user" + i)));
+        }
+
+        // Then
+        int[] perShard = new int[3];
+        for (User user : saved) {
+            int shard = ShardRouter.shardFor(user.getId(), 3);
+            perShard[shard]++;
+            Long rows = new JdbcTemplate(shards.get(shard))
+                    .queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Long.class, user.getId());
+            assertThat(rows).isEqualTo(1L);
+        }
+        assertThat(perShard).doesNotContain(0);
+        assertThat(repository.count()).isEqualTo(30);
+    }
+
+    @Test
+    void findByUsername_ShouldResolveThroughDirectory() {
+        // Given
+        User saved = repository.save(user("john_doe"));
+
+        // When & Then
+        assertThat(repository.findByUsername("john_doe")).get().extracting(User::getId).isEqualTo(saved.getId());
+        assertThat(repository.findById(saved.getId())).get().extracting(User::getEmail).isEqualTo("john_doe@example.com");
+        assertThat(repository.existsByUsername("john_doe")).isTrue();
+        assertThat(repository.existsByUsername("nobody")).isFalse();
+        assertThat(repository.findByEmail("john_doe@example.com")).isPresent();
+    }
+
+    @Test
+    void save_WithDuplicateUsername_ShouldFailWithoutTouchingShards() {
+        // Given
+        repository.save(user("john_doe"));
+
+        // When & Then
+        assertThatThrownBy(() -> repository.save(user("john_doe")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void save_WithStaleVersion_ShouldThrowOptimisticLockingFailure() {
+        // Given
+        User saved = repository.save(user("john_doe"));
+        User stale = repository.findById(saved.getId()).orElseThrow();
+        saved.setFirstName("Johnny");
+        repository.save(saved);
+
+        // When & Then
+        stale.setFirstName("Jon");
+        assertThatThrownBy(() -> repository.save(stale)).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(repository.findById(saved.getId())).get().extracting(User::getVersion).isEqualTo(1L);
+    }
+
+    @Test
+    void findAll_ShouldMergeShardsInIdOrder() {
+        // Given
+        for (int i = 0; i < 25; i++) {
+            repository.save(user("user" + i));
+        }
+
+        // When
+        Page<User> page = repository.findAll(PageRequest.of(1, 10));
+        List<User> afterTwenty = repository.findAllAfter(20, 10);
+
+        // Then
+        assertThat(page.getTotalElements()).isEqualTo(25);
+        assertThat(page.getContent()).extracting(User::getId).containsExactly(11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L);
+        assertThat(afterTwenty).extracting(User::getId).containsExactly(21L, 22L, 23L, 24L, 25L);
+    }
+
+    @Test
+    void deleteById_ShouldReleaseUsername() {
+        // Given
+        User saved = repository.save(user("john_doe"));
+
+        // When
+        repository.deleteById(saved.getId());
+
+        // Then
+        assertThat(repository.findById(saved.getId())).isEmpty();
+        assertThat(repository.existsByUsername("john_doe")).isFalse();
+    }
+
+    @Test
+    void findFieldsById_ShouldSelectOnlyRequestedFields() {
+        // Given
+        User saved = repository.save(user("john_doe"));
+
+        // When
+        Map<String, Object> row = repository.findFieldsById(saved.getId(), List.of("username", "firstName")).orElseThrow();
+
+        // Then
+        assertThat(row).containsExactly(Map.entry("username", "john_doe"), Map.entry("firstName", "First"));
+        assertThatThrownBy(() -> repository.findFieldsById(saved.getId(), List.of("password")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findAllFields_ShouldMergeShardsInIdOrder() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            repository.save(user("user" + i));
+        }
+
+        // When
+        List<Map<String, Object>> rows = repository.findAllFields(List.of("username"));
+
+        // Then
+        assertThat(rows).extracting(row -> row.get("username"))
+                .containsExactly("user0", "user1", "user2", "user3", "user4", "user5", "user6", "user7", "user8", "user9");
+        assertThat(rows).allSatisfy(row -> assertThat(row).containsOnlyKeys("username"));
+    }
+
+    @Test
+    void updateFieldsById_ShouldChangeColumnsAndBumpVersion() {
+        // Given
+        User saved = repository.save(user("john_doe"));
+
+        // When
+        int updated = repository.updateFieldsById(saved.getId(), Map.of("firstName", "Johnny", "address", "1 Main St"));
+        int missing = repository.updateFieldsById(999L, Map.of("firstName", "Nobody"));
+
+        // Then
+        User reloaded = repository.findById(saved.getId()).orElseThrow();
+        assertThat(updated).isEqualTo(1);
+        assertThat(missing).isZero();
+        assertThat(reloaded.getFirstName()).isEqualTo("Johnny");
+        assertThat(reloaded.getAddress()).isEqualTo("1 Main St");
+        assertThat(reloaded.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void updateFieldsInBatch_ShouldReportCountsInInputOrder() {
+        // Given
+        List<User> saved = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            saved.add(repository.save(user("user" + i)));
+        }
+        List<UserPatch> patches = List.of(
+                new UserPatch(saved.get(0).getId(), Map.of("lastName", "A"), null),
+                new UserPatch(saved.get(1).getId(), Map.of("lastName", "B"), 5L),
+                new UserPatch(saved.get(2).getId(), Map.of("lastName", "C"), 0L),
+                new UserPatch(999L, Map.of("lastName", "D"), null));
+
+        // When
+        int[] counts = repository.updateFieldsInBatch(patches);
+
+        // Then
+        assertThat(counts).containsExactly(1, 0, 1, 0);
+        assertThat(repository.findById(saved.get(1).getId())).get().extracting(User::getLastName).isEqualTo("Last");
+        assertThat(repository.findById(saved.get(2).getId())).get().extracting(User::getLastName).isEqualTo("C");
+    }
+
+    @Test
+    void findExistingIds_ShouldLookUpEachIdOnItsShard() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            repository.save(user("user" + i));
+        }
+
+        // When
+        List<Long> existing = repository.findExistingIds(List.of(1L, 3L, 5L, 42L));
+
+        // Then
+        assertThat(existing).containsExactlyInAnyOrder(1L, 3L, 5L);
+        assertThat(repository.findAllIds()).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+    }
+
+    private static User user(String username) {
+        User user = new User(username, username + "@example.com", "hash");
+        user.setFirstName("First");
+        user.setLastName("Last");
+        return user;
+    }
+
+    private static DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setDriverClassName("org.h2.Driver");
+        return dataSource;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.userservice.sqlstats;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test helper that counts the SQL statements the current thread executes, for asserting a per-request
+ * query budget:
+ *
+ * <pre>
+ * try (QueryBudget budget = QueryBudget.start(sqlStatistics)) {
+ *     mockMvc.perform(get("/api/users/1"));
+ *     budget.assertAtMost(1);
+ * }
+ * </pre>
+ *
+ * A batch execution counts once, however many rows it carries.
+ */
+public final class QueryBudget implements AutoCloseable {
+
+    private final SqlStatistics.Recording recording;
+
+    private QueryBudget(SqlStatistics.Recording recording) {
+        this.recording = recording;
+    }
+
+    public static QueryBudget start(SqlStatistics statistics) {
+        return new QueryBudget(statistics.startRecording());
+    }
+
+    public List<String> statements() {
+        return recording.statements();
+    }
+
+    public int count() {
+        return recording.statements().size();
+    }
+
+    public QueryBudget assertAtMost(int statements) {
+        assertThat(statements())
+            .as("SQL statements executed (budget %d)", statements)
+            .hasSizeLessThanOrEqualTo(statements);
+        return this;
+    }
+
+    public QueryBudget assertExactly(int statements) {
+        assertThat(statements())
+            .as("SQL statements executed")
+            .hasSize(statements);
+        return this;
+    }
+
+    public QueryBudget assertNone() {
+        return assertExactly(0);
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+}
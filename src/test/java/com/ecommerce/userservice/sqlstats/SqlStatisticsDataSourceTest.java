@@ -0,0 +1,116 @@
+package com.ecommerce.userservice.sqlstats;
+
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserPatch;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SqlStatisticsDataSourceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SqlStatistics sqlStatistics;
+
+    @Autowired
+    private SqlStatsEndpoint sqlStatsEndpoint;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void dataSource_ShouldStillUnwrapToThePool() throws SQLException {
+        assertThat(dataSource.isWrapperFor(HikariDataSource.class)).isTrue();
+        assertThat(dataSource.unwrap(HikariDataSource.class)).isNotNull();
+    }
+
+    @Test
+    void findByEmail_ShouldCostOneQueryAndCountItsRow() {
+        // Given
+        User saved = tx.execute(status -> userRepository.save(newUser()));
+        sqlStatistics.reset();
+
+        // When
+        String sql;
+        try (QueryBudget budget = QueryBudget.start(sqlStatistics)) {
+            tx.execute(status -> userRepository.findByEmail(saved.getEmail()));
+
+            // Then
+            budget.assertExactly(1);
+            sql = budget.statements().get(0);
+        }
+        assertThat(sql).doesNotContain(saved.getEmail());
+        assertThat(sqlStatistics.statements()).filteredOn(entry -> entry.sql().equals(sql)).singleElement()
+            .satisfies(entry -> {
+                assertThat(entry.calls()).isEqualTo(1);
+                assertThat(entry.rows()).isEqualTo(1);
+            });
+    }
+
+    @Test
+    void updateFieldsInBatch_ShouldSendOneStatementPerColumnSet() {
+        // Given
+        User first = tx.execute(status -> userRepository.save(newUser()));
+        User second = tx.execute(status -> userRepository.save(newUser()));
+
+        // When & Then
+        try (QueryBudget budget = QueryBudget.start(sqlStatistics)) {
+            tx.execute(status -> userRepository.updateFieldsInBatch(List.of(
+                new UserPatch(first.getId(), Map.of("firstName", "Ann"), null),
+                new UserPatch(second.getId(), Map.of("firstName", "Bob"), null))));
+            budget.assertExactly(1);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void endpoint_ShouldReportStatementsWithHistogram() {
+        // Given
+        sqlStatistics.reset();
+        tx.execute(status -> userRepository.save(newUser()));
+
+        // When
+        Map<String, Object> stats = sqlStatsEndpoint.sqlStats();
+
+        // Then
+        List<Map<String, Object>> statements = (List<Map<String, Object>>) stats.get("statements");
+        assertThat(statements).isNotEmpty();
+        assertThat(statements.get(0)).containsKeys("sql", "calls", "rows", "p95Ms", "histogram");
+    }
+
+    private User newUser() {
+        String name = "sql" + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User(name, name + "@example.com", "encoded");
+        user.setFirstName("Sql");
+        user.setLastName("Stats");
+        return user;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.userservice.sqlstats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlStatisticsTest {
+
+    @Test
+    void normalize_ShouldReplaceLiteralsAndCollapseInLists() {
+        // When
+        String normalized = SqlStatistics.normalize(
+            "select u1_0.id from users u1_0\n  where u1_0.username = 'o''brien' and u1_0.id in (?, ?, ?) and u1_0.version > 3");
+
+        // Then
+        assertThat(normalized).isEqualTo(
+            "select u1_0.id from users u1_0 where u1_0.username = ? and u1_0.id in (?...) and u1_0.version > ?");
+    }
+
+    @Test
+    void record_ShouldGroupByNormalizedSqlAndKeepHistogram() {
+        // Given
+        SqlStatistics statistics = new SqlStatistics(100, 500, 10);
+
+        // When
+        statistics.record("select * from users where id = 1", 200_000L, 1, false);
+        statistics.record("select * from users where id = 2", 3_000_000L, 1, false);
+        statistics.record("select * from users where id = 3", 150_000_000L, 0, true);
+
+        // Then
+        assertThat(statistics.statements()).hasSize(1);
+        SqlStatistics.Entry entry = statistics.statements().get(0);
+        assertThat(entry.sql()).isEqualTo("select * from users where id = ?");
+        assertThat(entry.calls()).isEqualTo(3);
+        assertThat(entry.errors()).isEqualTo(1);
+        assertThat(entry.rows()).isEqualTo(2);
+        assertThat(entry.maxNanos()).isEqualTo(150_000_000L);
+        assertThat(entry.percentileMs(0.5)).isEqualTo(5.0);
+        assertThat(entry.histogram()[1]).isEqualTo(1);
+        assertThat(statistics.slowSamples()).extracting(SqlStatistics.SlowSample::getSql)
+            .containsExactly("select * from users where id = ?");
+    }
+
+    @Test
+    void record_BeyondMaxStatements_ShouldFoldIntoOther() {
+        // Given
+        SqlStatistics statistics = new SqlStatistics(100, 2, 10);
+
+        // When
+        statistics.record("select a from t", 1_000L, 0, false);
+        statistics.record("select b from t", 1_000L, 0, false);
+        statistics.record("select c from t", 1_000L, 0, false);
+
+        // Then
+        assertThat(statistics.statements()).extracting(SqlStatistics.Entry::sql)
+            .containsExactlyInAnyOrder("select a from t", "select b from t", SqlStatistics.OTHER);
+    }
+
+    @Test
+    void startRecording_ShouldOnlySeeStatementsOfCurrentThread() throws InterruptedException {
+        // Given
+        SqlStatistics statistics = new SqlStatistics(100, 500, 10);
+
+        // When
+        SqlStatistics.Recording recording = statistics.startRecording();
+        statistics.record("select 1", 1_000L, 1, false);
+        Thread other = new Thread(() -> statistics.record("select 2", 1_000L, 1, false));
+        other.start();
+        other.join();
+        recording.close();
+        statistics.record("select 3", 1_000L, 1, false);
+
+        // Then
+        assertThat(recording.statements()).containsExactly("select ?");
+    }
+}
@@ -7,6 +7,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @ExtendWith(MockitoExtension.class)
@@ -121,6 +123,48 @@ public class TelemetryClientTest {
         telemetryClient.logEvent("Test log message", "ERROR");
     }
 
+    @Test
+    void log_WithoutActiveTrace_ShouldNotFormatArguments() {
+        // Given
+        AtomicInteger formatted = new AtomicInteger();
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                formatted.incrementAndGet();
+                return "argument";
+            }
+        };
+
+        // When
+        telemetryClient.log("INFO", "Fetching user by ID: {}", argument);
+        telemetryClient.log("INFO", () -> "Fetching user by ID: " + argument);
+
+        // Then
+        assertThat(telemetryClient.isLogEnabled()).isFalse();
+        assertThat(formatted).hasValue(0);
+    }
+
+    @Test
+    void log_WithActiveTrace_ShouldFormatArguments() {
+        // Given
+        telemetryClient.startTrace("test_operation", "GET", "http://localhost/test", "user123");
+        AtomicInteger formatted = new AtomicInteger();
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                formatted.incrementAndGet();
+                return "argument";
+            }
+        };
+
+        // When
+        telemetryClient.log("INFO", "Fetching user by ID: {}", argument);
+
+        // Then
+        assertThat(telemetryClient.isLogEnabled()).isTrue();
+        assertThat(formatted).hasValue(1);
+    }
+
     @Test
     void traceContext_ShouldWorkCorrectly() {
         // Test setting and getting trace context